@@ -0,0 +1,38 @@
+package com.tecazuay.gateway.capture;
+
+import java.util.Map;
+
+/**
+ * Petición capturada por {@link TrafficCaptureFilter}.
+ *
+ * @param arrivalOffsetMicros Llegada relativa al inicio de la captura
+ * @param method              Método HTTP
+ * @param uri                 Ruta y query originales
+ * @param status              Status devuelto por el gateway (0 si no se conoce)
+ * @param durationMicros      Tiempo total de la petición en el gateway
+ * @param headers             Cabeceras capturadas (solo las configuradas)
+ * @param bodyMode            Qué se guardó del cuerpo
+ * @param bodyLength          Tamaño original del cuerpo en bytes
+ * @param bodyDigest          SHA-256 del cuerpo (modo DIGEST), o null
+ * @param body                Cuerpo, posiblemente truncado (modo BODY), o null
+ */
+public record CapturedRequest(long arrivalOffsetMicros,
+                              String method,
+                              String uri,
+                              int status,
+                              long durationMicros,
+                              Map<String, String> headers,
+                              BodyMode bodyMode,
+                              int bodyLength,
+                              byte[] bodyDigest,
+                              byte[] body) {
+
+    /**
+     * Nivel de detalle del cuerpo en la captura.
+     */
+    public enum BodyMode {
+        NONE,
+        DIGEST,
+        BODY
+    }
+}
@@ -0,0 +1,40 @@
+package com.tecazuay.gateway.capture;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Backend mínimo para reproducir tráfico sin depender de los servicios reales:
+ * responde {@code 200 {}} a cualquier ruta tras una latencia fija.
+ */
+public class StubUpstreamServer implements AutoCloseable {
+
+    private static final byte[] BODY = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final DisposableServer server;
+
+    public StubUpstreamServer(int port, Duration latency) {
+        this.server = HttpServer.create()
+                .port(port)
+                .handle((request, response) -> request.receive()
+                        .then()
+                        .then(Mono.delay(latency))
+                        .then(response.header("Content-Type", "application/json")
+                                .sendByteArray(Mono.just(BODY))
+                                .then()))
+                .bindNow();
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
@@ -0,0 +1,152 @@
+package com.tecazuay.gateway.capture;
+
+import com.tecazuay.gateway.traffic.RequestArrivalFilter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Captura una muestra del tráfico en un archivo binario compacto para poder
+ * reproducirlo después con {@link TrafficReplayer}.
+ * <p>
+ * A diferencia de {@code RequestResponseLoggingFilter} conserva instantes de
+ * llegada y el cuerpo exacto (o su digest). Solo se registra con
+ * {@code gateway.capture.enabled=true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2) // Tras RequestArrivalFilter y antes de seguridad: también captura rechazos
+@ConditionalOnProperty(prefix = "gateway.capture", name = "enabled", havingValue = "true")
+public class TrafficCaptureFilter implements WebFilter {
+
+    private final TrafficCaptureWriter writer;
+    private final double sampleRate;
+    private final CapturedRequest.BodyMode bodyMode;
+    private final int maxBodyBytes;
+    private final List<String> headers;
+    private final long startNanos;
+
+    public TrafficCaptureFilter(@Value("${gateway.capture.file:gateway-capture.bin}") Path file,
+                                @Value("${gateway.capture.sample-rate:1.0}") double sampleRate,
+                                @Value("${gateway.capture.body-mode:DIGEST}") CapturedRequest.BodyMode bodyMode,
+                                @Value("${gateway.capture.max-body-bytes:65536}") int maxBodyBytes,
+                                @Value("${gateway.capture.headers:Content-Type,Accept,Accept-Encoding}") List<String> headers,
+                                @Value("${gateway.capture.queue-capacity:10000}") int queueCapacity) throws IOException {
+        this.startNanos = System.nanoTime();
+        this.writer = new TrafficCaptureWriter(file, queueCapacity, System.currentTimeMillis());
+        this.sampleRate = sampleRate;
+        this.bodyMode = bodyMode;
+        this.maxBodyBytes = maxBodyBytes;
+        this.headers = headers;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return chain.filter(exchange);
+        }
+
+        Long arrival = exchange.getAttribute(RequestArrivalFilter.ARRIVAL_NANOS_ATTRIBUTE);
+        long arrivalNanos = arrival != null ? arrival : System.nanoTime();
+        ServerHttpRequest request = exchange.getRequest();
+        BodyCapture bodyCapture = new BodyCapture();
+
+        ServerWebExchange capturingExchange = bodyMode == CapturedRequest.BodyMode.NONE ? exchange
+                : exchange.mutate().request(new ServerHttpRequestDecorator(request) {
+                    @Override
+                    public Flux<DataBuffer> getBody() {
+                        // Se observa el cuerpo mientras fluye hacia el backend, sin copiarlo entero
+                        return super.getBody().doOnNext(bodyCapture::update);
+                    }
+                }).build();
+
+        return chain.filter(capturingExchange)
+                .doFinally(signalType -> {
+                    HttpStatusCode status = capturingExchange.getResponse().getStatusCode();
+                    Map<String, String> capturedHeaders = new LinkedHashMap<>();
+                    for (String header : headers) {
+                        String value = request.getHeaders().getFirst(header);
+                        if (value != null) {
+                            capturedHeaders.put(header, value);
+                        }
+                    }
+
+                    String uri = request.getURI().getRawQuery() != null
+                            ? request.getURI().getRawPath() + "?" + request.getURI().getRawQuery()
+                            : request.getURI().getRawPath();
+                    writer.submit(new CapturedRequest(
+                            (arrivalNanos - startNanos) / 1_000,
+                            request.getMethod().name(),
+                            uri,
+                            status != null ? status.value() : 0,
+                            (System.nanoTime() - arrivalNanos) / 1_000,
+                            capturedHeaders,
+                            bodyMode,
+                            bodyCapture.length,
+                            bodyMode == CapturedRequest.BodyMode.DIGEST ? bodyCapture.digest.digest() : null,
+                            bodyMode == CapturedRequest.BodyMode.BODY ? bodyCapture.content.toByteArray() : null));
+                });
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Acumula digest, tamaño y (hasta el límite) contenido del cuerpo.
+     */
+    private class BodyCapture {
+
+        private final MessageDigest digest = newDigest();
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private int length;
+
+        void update(DataBuffer dataBuffer) {
+            length += dataBuffer.readableByteCount();
+            try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer byteBuffer = iterator.next();
+                    if (bodyMode == CapturedRequest.BodyMode.DIGEST) {
+                        digest.update(byteBuffer);
+                    } else {
+                        int toCopy = Math.min(byteBuffer.remaining(), maxBodyBytes - content.size());
+                        byte[] chunk = new byte[toCopy];
+                        byteBuffer.get(chunk);
+                        content.write(chunk, 0, toCopy);
+                    }
+                }
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.tecazuay.gateway.capture;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Formato binario de captura de tráfico.
+ * <p>
+ * Cabecera: {@code int magic, short version, long startEpochMillis}.
+ * Cada registro: {@code long arrivalOffsetMicros, utf method, utf uri,
+ * short status, long durationMicros, short headerCount, (utf name, utf value)*,
+ * byte bodyMode, [int bodyLength, 32 bytes digest | int bodyLength, int stored, bytes]}.
+ * Los campos {@code utf} se truncan al límite de 65535 bytes de {@code writeUTF}.
+ */
+final class TrafficCaptureFormat {
+
+    static final int MAGIC = 0x47574341; // "GWCA"
+    static final short VERSION = 1;
+    static final int DIGEST_LENGTH = 32;
+    static final int MAX_UTF_LENGTH = 65535;
+
+    private TrafficCaptureFormat() {
+    }
+
+    static void writeHeader(DataOutputStream out, long startEpochMillis) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(startEpochMillis);
+    }
+
+    /**
+     * @return instante de inicio de la captura en epoch millis
+     */
+    static long readHeader(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a gateway traffic capture file");
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported capture version " + version);
+        }
+        return in.readLong();
+    }
+
+    static void writeRecord(DataOutputStream out, CapturedRequest request) throws IOException {
+        out.writeLong(request.arrivalOffsetMicros());
+        writeString(out, request.method());
+        writeString(out, request.uri());
+        out.writeShort(request.status());
+        out.writeLong(request.durationMicros());
+
+        out.writeShort(request.headers().size());
+        for (Map.Entry<String, String> header : request.headers().entrySet()) {
+            writeString(out, header.getKey());
+            writeString(out, header.getValue());
+        }
+
+        out.writeByte(request.bodyMode().ordinal());
+        switch (request.bodyMode()) {
+            case DIGEST -> {
+                out.writeInt(request.bodyLength());
+                out.write(request.bodyDigest());
+            }
+            case BODY -> {
+                out.writeInt(request.bodyLength());
+                out.writeInt(request.body().length);
+                out.write(request.body());
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // Longitud en UTF-8 modificado, el mismo cálculo que hace writeUTF
+        int encodedLength = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            int charLength = c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+            if (encodedLength + charLength > MAX_UTF_LENGTH) {
+                out.writeUTF(value.substring(0, i));
+                return;
+            }
+            encodedLength += charLength;
+        }
+        out.writeUTF(value);
+    }
+
+    /**
+     * @return el siguiente registro, o null al final del archivo
+     */
+    static CapturedRequest readRecord(DataInputStream in) throws IOException {
+        long arrivalOffsetMicros;
+        try {
+            arrivalOffsetMicros = in.readLong();
+        } catch (EOFException e) {
+            return null;
+        }
+        String method = in.readUTF();
+        String uri = in.readUTF();
+        int status = in.readUnsignedShort();
+        long durationMicros = in.readLong();
+
+        int headerCount = in.readUnsignedShort();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put(in.readUTF(), in.readUTF());
+        }
+
+        CapturedRequest.BodyMode bodyMode = CapturedRequest.BodyMode.values()[in.readUnsignedByte()];
+        int bodyLength = 0;
+        byte[] digest = null;
+        byte[] body = null;
+        switch (bodyMode) {
+            case DIGEST -> {
+                bodyLength = in.readInt();
+                digest = new byte[DIGEST_LENGTH];
+                in.readFully(digest);
+            }
+            case BODY -> {
+                bodyLength = in.readInt();
+                body = new byte[in.readInt()];
+                in.readFully(body);
+            }
+            default -> {
+            }
+        }
+
+        return new CapturedRequest(arrivalOffsetMicros, method, uri, status, durationMicros,
+                headers, bodyMode, bodyLength, digest, body);
+    }
+}
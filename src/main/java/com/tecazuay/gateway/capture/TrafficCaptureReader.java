@@ -0,0 +1,36 @@
+package com.tecazuay.gateway.capture;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lee archivos escritos por {@link TrafficCaptureWriter}.
+ */
+public final class TrafficCaptureReader {
+
+    private TrafficCaptureReader() {
+    }
+
+    /**
+     * Lee todos los registros ordenados por instante de llegada (se escriben al
+     * terminar cada petición, así que en el archivo pueden estar desordenados).
+     */
+    public static List<CapturedRequest> readAll(Path file) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.toFile()), 64 * 1024))) {
+            TrafficCaptureFormat.readHeader(in);
+            CapturedRequest request;
+            while ((request = TrafficCaptureFormat.readRecord(in)) != null) {
+                requests.add(request);
+            }
+        }
+        requests.sort(Comparator.comparingLong(CapturedRequest::arrivalOffsetMicros));
+        return requests;
+    }
+}
@@ -0,0 +1,103 @@
+package com.tecazuay.gateway.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escribe registros de captura en un hilo propio para no bloquear el event loop.
+ * Si la cola se llena los registros se descartan y se cuentan; un registro que
+ * no se puede escribir también se descarta sin detener el hilo.
+ */
+public class TrafficCaptureWriter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+
+    private final BlockingQueue<CapturedRequest> queue;
+    private final DataOutputStream out;
+    private final Thread writerThread;
+    private final AtomicLong dropped = new AtomicLong();
+    // Cada registro se serializa aquí primero para no dejar registros a medias en el archivo
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(4 * 1024);
+    private final DataOutputStream recordOut = new DataOutputStream(recordBuffer);
+    private volatile boolean running = true;
+
+    public TrafficCaptureWriter(Path file, int queueCapacity, long startEpochMillis) throws IOException {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 64 * 1024));
+        TrafficCaptureFormat.writeHeader(out, startEpochMillis);
+
+        this.writerThread = new Thread(this::drain, "traffic-capture-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Encola un registro sin bloquear.
+     *
+     * @return false si se descartó por cola llena
+     */
+    public boolean submit(CapturedRequest request) {
+        if (!queue.offer(request)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                CapturedRequest request = queue.poll(100, TimeUnit.MILLISECONDS);
+                try {
+                    if (request != null) {
+                        write(request);
+                    } else {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    if (request != null) {
+                        dropped.incrementAndGet();
+                    }
+                    logger.error("Error escribiendo la captura de tráfico: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(CapturedRequest request) throws IOException {
+        recordBuffer.reset();
+        TrafficCaptureFormat.writeRecord(recordOut, request);
+        recordBuffer.writeTo(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (dropped.get() > 0) {
+            logger.warn("Captura de tráfico cerrada con {} registros descartados", dropped.get());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.tecazuay.gateway.capture;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Herramienta de línea de comandos que reproduce una captura de
+ * {@link TrafficCaptureFilter} contra un gateway local.
+ * <pre>
+ * java -cp app.jar -Dloader.main=com.tecazuay.gateway.capture.TrafficReplayer \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     capture.bin http://localhost:8080 [--speed=1.0] [--concurrency=256]
+ *     [--stub-port=9090] [--stub-latency=20ms] [--header=Authorization:Bearer ...]
+ * </pre>
+ * {@code --speed} escala los tiempos de llegada (2.0 = doble de rápido, 0 = sin esperas).
+ * Con {@code --stub-port} levanta un {@link StubUpstreamServer}; las rutas del gateway
+ * deben apuntar a él para medir solo la cadena de filtros. Las capturas en modo
+ * {@code DIGEST} se reproducen con cuerpos sintéticos del tamaño original.
+ */
+public class TrafficReplayer {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: TrafficReplayer <capture-file> <gateway-base-url> [--speed=1.0] [--concurrency=256]"
+                    + " [--stub-port=N] [--stub-latency=20ms] [--header=Name:Value]...");
+            System.exit(1);
+        }
+
+        Path file = Path.of(args[0]);
+        String baseUrl = args[1];
+        double speed = 1.0;
+        int concurrency = 256;
+        Integer stubPort = null;
+        Duration stubLatency = Duration.ofMillis(20);
+        Map<String, String> extraHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (int i = 2; i < args.length; i++) {
+            String arg = args[i];
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--speed=")) {
+                speed = Double.parseDouble(value);
+            } else if (arg.startsWith("--concurrency=")) {
+                concurrency = Integer.parseInt(value);
+            } else if (arg.startsWith("--stub-port=")) {
+                stubPort = Integer.parseInt(value);
+            } else if (arg.startsWith("--stub-latency=")) {
+                stubLatency = Duration.ofMillis(Long.parseLong(value.replace("ms", "")));
+            } else if (arg.startsWith("--header=")) {
+                int colon = value.indexOf(':');
+                extraHeaders.put(value.substring(0, colon).trim(), value.substring(colon + 1).trim());
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        List<CapturedRequest> requests = TrafficCaptureReader.readAll(file);
+        System.out.printf("Replaying %d requests from %s against %s at speed %.2f%n", requests.size(), file, baseUrl, speed);
+
+        StubUpstreamServer stub = stubPort != null ? new StubUpstreamServer(stubPort, stubLatency) : null;
+        try {
+            replay(requests, WebClient.create(baseUrl), speed, concurrency, extraHeaders).print();
+        } finally {
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    static Summary replay(List<CapturedRequest> requests, WebClient webClient, double speed,
+                          int concurrency, Map<String, String> extraHeaders) {
+        Summary summary = new Summary();
+        long startNanos = System.nanoTime();
+
+        Flux.fromIterable(requests)
+                // Se respeta el instante de llegada original, escalado por la velocidad
+                .concatMap(request -> {
+                    if (speed <= 0) {
+                        return Mono.just(request);
+                    }
+                    long dueNanos = (long) (request.arrivalOffsetMicros() * 1_000 / speed);
+                    long waitNanos = dueNanos - (System.nanoTime() - startNanos);
+                    return waitNanos > 0 ? Mono.delay(Duration.ofNanos(waitNanos)).thenReturn(request) : Mono.just(request);
+                })
+                .flatMap(request -> send(webClient, request, extraHeaders, summary), concurrency)
+                .blockLast();
+
+        summary.elapsedNanos = System.nanoTime() - startNanos;
+        return summary;
+    }
+
+    private static Mono<Void> send(WebClient webClient, CapturedRequest request,
+                                   Map<String, String> extraHeaders, Summary summary) {
+        long start = System.nanoTime();
+        WebClient.RequestBodySpec spec = webClient.method(HttpMethod.valueOf(request.method()))
+                .uri(request.uri())
+                .headers(headers -> {
+                    request.headers().forEach(headers::set);
+                    extraHeaders.forEach(headers::set);
+                });
+
+        byte[] body = replayBody(request);
+        WebClient.RequestHeadersSpec<?> withBody = body != null ? spec.bodyValue(body) : spec;
+
+        return withBody.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value()))
+                .doOnNext(status -> summary.record(status, System.nanoTime() - start))
+                .doOnError(e -> summary.errors.incrementAndGet())
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    /**
+     * Cuerpo a reenviar. En modo DIGEST solo se conoce el tamaño, así que se genera
+     * un cuerpo del mismo tamaño (JSON válido si la petición era JSON) para que la
+     * petición recorra los mismos filtros que en producción; el contenido no es el original.
+     */
+    static byte[] replayBody(CapturedRequest request) {
+        if (request.body() != null) {
+            return request.body();
+        }
+        if (request.bodyMode() != CapturedRequest.BodyMode.DIGEST || request.bodyLength() <= 0) {
+            return null;
+        }
+
+        byte[] body = new byte[request.bodyLength()];
+        Arrays.fill(body, (byte) 'x');
+        byte[] jsonPrefix = "{\"_\":\"".getBytes(StandardCharsets.US_ASCII);
+        byte[] jsonSuffix = "\"}".getBytes(StandardCharsets.US_ASCII);
+        if (isJson(request) && body.length >= jsonPrefix.length + jsonSuffix.length) {
+            System.arraycopy(jsonPrefix, 0, body, 0, jsonPrefix.length);
+            System.arraycopy(jsonSuffix, 0, body, body.length - jsonSuffix.length, jsonSuffix.length);
+        }
+        return body;
+    }
+
+    private static boolean isJson(CapturedRequest request) {
+        for (Map.Entry<String, String> header : request.headers().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)) {
+                return header.getValue().toLowerCase(Locale.ROOT).contains("json");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resumen de la reproducción: status, errores y percentiles de latencia.
+     */
+    static class Summary {
+
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        private final AtomicInteger errors = new AtomicInteger();
+        private long elapsedNanos;
+
+        void record(int status, long latencyNanos) {
+            latencies.add(latencyNanos);
+            statuses.computeIfAbsent(status, s -> new AtomicInteger()).incrementAndGet();
+        }
+
+        void print() {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("Completed %d requests in %.1fs (%d errors)%n",
+                    sorted.size(), elapsedNanos / 1e9, errors.get());
+            System.out.printf("Latency p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+            new TreeMap<>(statuses).forEach((status, count) -> System.out.printf("  %d: %d%n", status, count.get()));
+        }
+
+        private static double percentile(List<Long> sorted, double quantile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+            return sorted.get(Math.max(0, index)) / 1e6;
+        }
+    }
+}
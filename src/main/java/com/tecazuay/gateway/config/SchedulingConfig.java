@@ -0,0 +1,12 @@
+package com.tecazuay.gateway.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita tareas programadas (rotación de llaves del gateway)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,74 @@
+package com.tecazuay.gateway.diagnostics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agregado por ruta y etapa de las peticiones muestreadas por
+ * {@link AllocationProfilingFilter}.
+ */
+public class AllocationProfileRegistry {
+
+    private final Map<String, RouteProfile> routes = new ConcurrentHashMap<>();
+
+    void record(String routeId, RequestAccounting accounting) {
+        RouteProfile profile = routes.computeIfAbsent(routeId, id -> new RouteProfile());
+        profile.requests.increment();
+        accounting.getCosts().forEach((stage, cost) -> {
+            StageProfile stageProfile = profile.stages.computeIfAbsent(stage, s -> new StageProfile());
+            stageProfile.allocatedBytes.add(cost[0]);
+            stageProfile.cpuNanos.add(cost[1]);
+        });
+    }
+
+    /**
+     * Promedios por petición muestreada: {@code route -> {requests, stages -> {bytes, cpuMicros}}}.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new TreeMap<>();
+        routes.forEach((routeId, profile) -> {
+            long requests = profile.requests.sum();
+            Map<String, Object> stages = new TreeMap<>();
+            long totalBytes = 0;
+            long totalCpuNanos = 0;
+            for (Map.Entry<String, StageProfile> entry : profile.stages.entrySet()) {
+                long bytes = entry.getValue().allocatedBytes.sum();
+                long cpuNanos = entry.getValue().cpuNanos.sum();
+                totalBytes += bytes;
+                totalCpuNanos += cpuNanos;
+                stages.put(entry.getKey(), perRequest(bytes, cpuNanos, requests));
+            }
+
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("sampledRequests", requests);
+            route.put("total", perRequest(totalBytes, totalCpuNanos, requests));
+            route.put("stages", stages);
+            result.put(routeId, route);
+        });
+        return result;
+    }
+
+    public void reset() {
+        routes.clear();
+    }
+
+    private static Map<String, Object> perRequest(long bytes, long cpuNanos, long requests) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("allocatedBytesPerRequest", requests > 0 ? bytes / requests : 0);
+        values.put("cpuMicrosPerRequest", requests > 0 ? cpuNanos / 1_000.0 / requests : 0);
+        return values;
+    }
+
+    private static class RouteProfile {
+        private final LongAdder requests = new LongAdder();
+        private final Map<String, StageProfile> stages = new ConcurrentHashMap<>();
+    }
+
+    private static class StageProfile {
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,32 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Modo de instrumentación de memoria y CPU por petición y por filtro.
+ * Solo se activa con {@code gateway.profiling.allocation.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "gateway.profiling.allocation", name = "enabled", havingValue = "true")
+public class AllocationProfilingConfig {
+
+    @Bean
+    public AllocationProfileRegistry allocationProfileRegistry() {
+        return new AllocationProfileRegistry();
+    }
+
+    @Bean
+    public AllocationProfilingFilter allocationProfilingFilter(AllocationProfileRegistry registry,
+                                                               @Value("${gateway.profiling.allocation.sample-rate:0.01}") double sampleRate) {
+        RequestAccounting.enableThreadCounters();
+        return new AllocationProfilingFilter(registry, sampleRate);
+    }
+
+    @Bean
+    public AllocationsEndpoint allocationsEndpoint(AllocationProfileRegistry registry) {
+        return new AllocationsEndpoint(registry);
+    }
+}
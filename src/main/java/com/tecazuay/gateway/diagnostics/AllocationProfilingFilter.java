@@ -0,0 +1,49 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Marca una muestra de peticiones para contabilidad de memoria y CPU por etapa
+ * y, al terminar, la agrega por ruta en {@link AllocationProfileRegistry}.
+ */
+public class AllocationProfilingFilter implements WebFilter, Ordered {
+
+    static final String ACCOUNTING_ATTRIBUTE = AllocationProfilingFilter.class.getName() + ".accounting";
+
+    private final AllocationProfileRegistry registry;
+    private final double sampleRate;
+
+    public AllocationProfilingFilter(AllocationProfileRegistry registry, double sampleRate) {
+        this.registry = registry;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return chain.filter(exchange);
+        }
+
+        RequestAccounting accounting = new RequestAccounting();
+        exchange.getAttributes().put(ACCOUNTING_ATTRIBUTE, accounting);
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    registry.record(route != null ? route.getId() : "unrouted", accounting);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Justo después de RequestArrivalFilter, antes que cualquier etapa medida
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * {@code /actuator/allocations}: memoria reservada y CPU promedio por petición,
+ * por ruta y por filtro. {@code DELETE} reinicia los contadores.
+ */
+@Endpoint(id = "allocations")
+public class AllocationsEndpoint {
+
+    private final AllocationProfileRegistry registry;
+
+    public AllocationsEndpoint(AllocationProfileRegistry registry) {
+        this.registry = registry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> allocations() {
+        return registry.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        registry.reset();
+    }
+}
@@ -0,0 +1,145 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+/**
+ * Carga a una etapa el trabajo que su decorador hace sobre las señales del cuerpo
+ * (copias, parseo, compresión), que ocurre después de la llamada a {@code filter()}.
+ * <p>
+ * Se marcan los dos bordes de la etapa: donde el cuerpo entra a ella se abre la
+ * etapa y donde sale hacia la siguiente se cierra mientras dura la señal. Para la
+ * petición el cuerpo entra por el exchange que recibe el filtro y sale por el que
+ * pasa a la cadena; para la respuesta es al revés. Si la etapa no decora el cuerpo
+ * los dos bordes quedan contiguos y no se le carga nada.
+ */
+final class BodyAccounting {
+
+    private BodyAccounting() {
+    }
+
+    /**
+     * Exchange que recibe el filtro de la etapa.
+     */
+    static ServerWebExchange inbound(ServerWebExchange exchange, RequestAccounting accounting, String stage) {
+        return decorate(exchange, accounting, stage, true);
+    }
+
+    /**
+     * Exchange que la etapa pasa al resto de la cadena.
+     */
+    static ServerWebExchange outbound(ServerWebExchange exchange, RequestAccounting accounting, String stage) {
+        return decorate(exchange, accounting, stage, false);
+    }
+
+    private static ServerWebExchange decorate(ServerWebExchange exchange, RequestAccounting accounting,
+                                              String stage, boolean inbound) {
+        return exchange.mutate()
+                .request(new ServerHttpRequestDecorator(exchange.getRequest()) {
+                    @Override
+                    public Flux<DataBuffer> getBody() {
+                        return Flux.from(boundary(super.getBody(), accounting, stage, inbound));
+                    }
+                })
+                .response(new ServerHttpResponseDecorator(exchange.getResponse()) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        return super.writeWith(boundary(body, accounting, stage, !inbound));
+                    }
+
+                    @Override
+                    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                        return super.writeAndFlushWith(Flux.from(body)
+                                .map(publisher -> boundary(publisher, accounting, stage, !inbound)));
+                    }
+                })
+                .build();
+    }
+
+    private static <T> Publisher<T> boundary(Publisher<T> body, RequestAccounting accounting,
+                                             String stage, boolean opensStage) {
+        return subscriber -> body.subscribe(
+                new BoundarySubscriber<>(Operators.toCoreSubscriber(subscriber), accounting, stage, opensStage));
+    }
+
+    private static class BoundarySubscriber<T> implements CoreSubscriber<T> {
+
+        private final CoreSubscriber<? super T> actual;
+        private final RequestAccounting accounting;
+        private final String stage;
+        private final boolean opensStage;
+
+        BoundarySubscriber(CoreSubscriber<? super T> actual, RequestAccounting accounting,
+                           String stage, boolean opensStage) {
+            this.actual = actual;
+            this.accounting = accounting;
+            this.stage = stage;
+            this.opensStage = opensStage;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            actual.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(T value) {
+            Runnable restore = open();
+            try {
+                actual.onNext(value);
+            } finally {
+                restore.run();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            Runnable restore = open();
+            try {
+                actual.onError(error);
+            } finally {
+                restore.run();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            Runnable restore = open();
+            try {
+                actual.onComplete();
+            } finally {
+                restore.run();
+            }
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        /**
+         * Aplica el borde y devuelve cómo deshacerlo al terminar la señal.
+         */
+        private Runnable open() {
+            if (opensStage) {
+                accounting.enter(stage);
+                return accounting::exit;
+            }
+            // Si la etapa saltó de hilo su marca ya no está en la cima: no hay nada que cerrar
+            if (accounting.exitIfTop(stage)) {
+                return () -> accounting.enter(stage);
+            }
+            return () -> {
+            };
+        }
+    }
+}
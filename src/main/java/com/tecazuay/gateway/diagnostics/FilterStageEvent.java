@@ -0,0 +1,22 @@
+package com.tecazuay.gateway.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Tramo síncrono de un filtro del gateway sobre el event loop.
+ */
+@Name("com.tecazuay.gateway.FilterStage")
+@Label("Gateway Filter Stage")
+@Category({"Gateway", "Filters"})
+@Description("Synchronous execution of a gateway filter for one request")
+public class FilterStageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Path")
+    String path;
+}
@@ -0,0 +1,158 @@
+package com.tecazuay.gateway.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Perfilado bajo demanda con JDK Flight Recorder, solo para administradores
+ * ({@code /api/admin/**} en {@code SecurityConfig}).
+ * <p>
+ * {@code GET /api/admin/diagnostics/jfr?duration=30s} graba durante el tiempo
+ * indicado (acotado por {@code gateway.diagnostics.jfr.max-duration}) con el
+ * perfil {@code profile} del JDK ajustado para el gateway, y devuelve el
+ * archivo {@code .jfr}. Solo se permite una grabación a la vez.
+ * <p>
+ * Está siempre disponible para poder perfilar una instancia en caliente; los
+ * eventos {@code FilterStage} solo aparecen con
+ * {@code gateway.diagnostics.jfr.filter-stages=true}, que instrumenta los filtros.
+ */
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+public class JfrDiagnosticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrDiagnosticsController.class);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final AtomicBoolean recording = new AtomicBoolean();
+    private final Duration maxDuration;
+    private final Duration stageThreshold;
+
+    public JfrDiagnosticsController(@Value("${gateway.diagnostics.jfr.max-duration:5m}") Duration maxDuration,
+                                    @Value("${gateway.diagnostics.jfr.stage-threshold:1ms}") Duration stageThreshold) {
+        this.maxDuration = maxDuration;
+        this.stageThreshold = stageThreshold;
+    }
+
+    @GetMapping("/jfr")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> record(@RequestParam(name = "duration", defaultValue = "30s") String durationValue) {
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(durationValue);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(maxDuration) > 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (!recording.compareAndSet(false, true)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+
+        RecordingSession session = new RecordingSession();
+        return Mono.fromRunnable(session::start)
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.delay(duration))
+                .then(Mono.fromCallable(session::stopAndDump).subscribeOn(Schedulers.boundedElastic()))
+                .map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                .filename(file.getFileName().toString())
+                                .build()
+                                .toString())
+                        .body(DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, CHUNK_SIZE)
+                                .doFinally(signalType -> session.close())))
+                // Error o desconexión antes de enviar el archivo: se libera la grabación igualmente
+                .doOnError(e -> session.close())
+                .doOnCancel(session::close);
+    }
+
+    /**
+     * Perfil {@code profile} del JDK más los eventos propios del gateway.
+     */
+    private Map<String, String> gatewaySettings() throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+        settings.put("com.tecazuay.gateway.FilterStage#enabled", "true");
+        settings.put("com.tecazuay.gateway.FilterStage#threshold", stageThreshold.toNanos() + " ns");
+        settings.put("com.tecazuay.gateway.RateLimitRejected#enabled", "true");
+        settings.put("com.tecazuay.gateway.KeyFetch#enabled", "true");
+        settings.put("com.tecazuay.gateway.KeyFetch#threshold", "0 ns");
+        // E/S de red hacia los backends y contención en el event loop
+        settings.put("jdk.SocketRead#threshold", "10 ms");
+        settings.put("jdk.SocketWrite#threshold", "10 ms");
+        settings.put("jdk.JavaMonitorEnter#threshold", "5 ms");
+        settings.put("jdk.ThreadPark#threshold", "10 ms");
+        return settings;
+    }
+
+    private class RecordingSession {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private Recording jfr;
+        private Path file;
+
+        void start() {
+            try {
+                jfr = new Recording(gatewaySettings());
+                jfr.setName("gateway-diagnostics-" + Instant.now().getEpochSecond());
+                jfr.setToDisk(true);
+                jfr.start();
+                logger.info("Grabación JFR {} iniciada", jfr.getName());
+            } catch (IOException | ParseException e) {
+                throw new IllegalStateException("Error starting JFR recording", e);
+            }
+        }
+
+        Path stopAndDump() throws IOException {
+            jfr.stop();
+            file = Files.createTempFile(jfr.getName(), ".jfr");
+            jfr.dump(file);
+            return file;
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (jfr != null) {
+                jfr.close();
+            }
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.warn("No se pudo borrar {}: {}", file, e.getMessage());
+                }
+            }
+            recording.set(false);
+        }
+    }
+}
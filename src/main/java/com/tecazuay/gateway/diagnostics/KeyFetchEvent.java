@@ -0,0 +1,25 @@
+package com.tecazuay.gateway.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Descarga de la llave pública del servicio de autenticación (fallo de caché).
+ */
+@Name("com.tecazuay.gateway.KeyFetch")
+@Label("Gateway Public Key Fetch")
+@Category({"Gateway", "Security"})
+@Description("Remote fetch of the auth service public key")
+public class KeyFetchEvent extends jdk.jfr.Event {
+
+    @Label("URI")
+    public String uri;
+
+    @Label("Success")
+    public boolean success;
+
+    @Label("Error")
+    public String error;
+}
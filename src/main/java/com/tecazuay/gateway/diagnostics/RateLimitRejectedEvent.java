@@ -0,0 +1,25 @@
+package com.tecazuay.gateway.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Petición rechazada con 429 por {@code RateLimitingFilter}.
+ */
+@Name("com.tecazuay.gateway.RateLimitRejected")
+@Label("Gateway Rate Limit Rejection")
+@Category({"Gateway", "Security"})
+@Description("Request rejected by the per-IP rate limiter")
+public class RateLimitRejectedEvent extends jdk.jfr.Event {
+
+    @Label("Client IP")
+    public String clientIp;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Login Bucket")
+    public boolean loginBucket;
+}
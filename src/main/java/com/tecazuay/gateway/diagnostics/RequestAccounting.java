@@ -0,0 +1,83 @@
+package com.tecazuay.gateway.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Contabilidad de bytes reservados y tiempo de CPU de una petición muestreada,
+ * repartida por etapa (filtro).
+ * <p>
+ * Las etapas anidadas forman una pila: al entrar en una etapa se carga lo
+ * consumido hasta ese momento a la etapa padre, así cada filtro se queda solo
+ * con su costo propio. Solo se miden los tramos síncronos en el hilo actual;
+ * si la petición salta de hilo se reinicia la marca para no cargar trabajo ajeno.
+ * El trabajo sobre las señales del cuerpo se carga con {@link BodyAccounting}.
+ */
+class RequestAccounting {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Deque<String> stages = new ArrayDeque<>();
+    private final Map<String, long[]> costs = new LinkedHashMap<>();
+
+    private Thread markThread;
+    private long markBytes;
+    private long markCpuNanos;
+
+    static void enableThreadCounters() {
+        if (THREADS.isThreadAllocatedMemorySupported()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        if (THREADS.isCurrentThreadCpuTimeSupported()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    synchronized void enter(String stage) {
+        chargeTop();
+        stages.push(stage);
+    }
+
+    synchronized void exit() {
+        chargeTop();
+        stages.poll();
+    }
+
+    /**
+     * Sale de la etapa solo si es la de la cima.
+     *
+     * @return true si se salió de la etapa
+     */
+    synchronized boolean exitIfTop(String stage) {
+        if (!stage.equals(stages.peek())) {
+            return false;
+        }
+        exit();
+        return true;
+    }
+
+    synchronized Map<String, long[]> getCosts() {
+        return costs;
+    }
+
+    private void chargeTop() {
+        Thread current = Thread.currentThread();
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long cpuNanos = THREADS.getCurrentThreadCpuTime();
+
+        String top = stages.peek();
+        if (top != null && markThread == current) {
+            long[] cost = costs.computeIfAbsent(top, stage -> new long[2]);
+            cost[0] += bytes - markBytes;
+            cost[1] += cpuNanos - markCpuNanos;
+        }
+
+        markThread = current;
+        markBytes = bytes;
+        markCpuNanos = cpuNanos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Envuelve la ejecución de una etapa (filtro): contabilidad de memoria/CPU para
+ * peticiones muestreadas y {@link FilterStageEvent} cuando hay una grabación JFR.
+ */
+final class StageInstrumentation {
+
+    private StageInstrumentation() {
+    }
+
+    /**
+     * Mide la invocación del filtro y la suscripción síncrona a su resultado,
+     * que es donde se ejecuta el trabajo del filtro sobre el event loop. En las
+     * peticiones muestreadas también se carga a la etapa el trabajo de sus
+     * decoradores sobre el cuerpo ({@link BodyAccounting}).
+     *
+     * @param invocation Invoca el filtro con el exchange a usar y la transformación
+     *                   que debe aplicarse al exchange que el filtro pasa a la cadena
+     */
+    static Mono<Void> measure(ServerWebExchange exchange, String stage,
+                              BiFunction<ServerWebExchange, UnaryOperator<ServerWebExchange>, Mono<Void>> invocation) {
+        RequestAccounting accounting = exchange.getAttribute(AllocationProfilingFilter.ACCOUNTING_ATTRIBUTE);
+        // Sin grabación JFR activa isEnabled() es false y el JIT elimina el evento
+        FilterStageEvent event = new FilterStageEvent();
+        if (accounting == null && !event.isEnabled()) {
+            return invocation.apply(exchange, UnaryOperator.identity());
+        }
+
+        ServerWebExchange stageExchange = accounting != null
+                ? BodyAccounting.inbound(exchange, accounting, stage) : exchange;
+        UnaryOperator<ServerWebExchange> next = accounting != null
+                ? forwarded -> BodyAccounting.outbound(forwarded, accounting, stage) : UnaryOperator.identity();
+
+        return Mono.<Void>fromDirect(subscriber -> {
+            if (accounting != null) {
+                accounting.enter(stage);
+            }
+            event.begin();
+            try {
+                invocation.apply(stageExchange, next).subscribe(subscriber);
+            } catch (Throwable e) {
+                Operators.error(subscriber, e);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage;
+                    event.path = exchange.getRequest().getURI().getPath();
+                    event.commit();
+                }
+                if (accounting != null) {
+                    accounting.exit();
+                }
+            }
+        });
+    }
+}
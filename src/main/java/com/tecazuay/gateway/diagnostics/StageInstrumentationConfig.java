@@ -0,0 +1,22 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instrumentación de filtros por etapa, compartida por la contabilidad de
+ * memoria/CPU y por los eventos JFR de diagnóstico.
+ */
+@Configuration
+@ConditionalOnExpression("${gateway.profiling.allocation.enabled:false} or ${gateway.diagnostics.jfr.filter-stages:false}")
+public class StageInstrumentationConfig {
+
+    /**
+     * Estático para que el post-procesador se registre antes que los filtros que instrumenta
+     */
+    @Bean
+    public static StageInstrumentingPostProcessor stageInstrumentingPostProcessor() {
+        return new StageInstrumentingPostProcessor();
+    }
+}
@@ -0,0 +1,119 @@
+package com.tecazuay.gateway.diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Instrumenta cada {@link WebFilter} y {@link GlobalFilter} como una etapa medida.
+ * <p>
+ * Los beans se envuelven con un proxy de clase (CGLIB) para conservar su tipo
+ * concreto, ya que {@code SecurityConfig} los inyecta por clase. Los filtros
+ * internos de la cadena de seguridad no son beans y se decoran al exponerse
+ * desde {@link SecurityWebFilterChain}.
+ */
+class StageInstrumentingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof SecurityWebFilterChain chain) {
+            return instrumentSecurityChain(chain);
+        }
+        if (!(bean instanceof WebFilter || bean instanceof GlobalFilter)
+                || bean instanceof AllocationProfilingFilter
+                || !isProxyable(bean.getClass())) {
+            return bean;
+        }
+
+        String stage = ClassUtils.getUserClass(bean).getSimpleName();
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Method method = invocation.getMethod();
+            Object[] arguments = invocation.getArguments();
+            if (!"filter".equals(method.getName()) || arguments.length != 2
+                    || !(arguments[0] instanceof ServerWebExchange exchange)) {
+                return invocation.proceed();
+            }
+            Object chain = arguments[1];
+            return StageInstrumentation.measure(exchange, stage, (stageExchange, next) ->
+                    invoke(bean, method, new Object[] {stageExchange, wrapChain(chain, next)}));
+        });
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private SecurityWebFilterChain instrumentSecurityChain(SecurityWebFilterChain chain) {
+        return new SecurityWebFilterChain() {
+            @Override
+            public Mono<Boolean> matches(ServerWebExchange exchange) {
+                return chain.matches(exchange);
+            }
+
+            @Override
+            public Flux<WebFilter> getWebFilters() {
+                return chain.getWebFilters().map(filter -> {
+                    // Los beans ya instrumentados no se miden dos veces
+                    if (AopUtils.isAopProxy(filter)) {
+                        return filter;
+                    }
+                    String stage = ClassUtils.getUserClass(filter).getSimpleName();
+                    return (WebFilter) (exchange, chain) ->
+                            StageInstrumentation.measure(exchange, stage, (stageExchange, next) ->
+                                    filter.filter(stageExchange, forwarded -> chain.filter(next.apply(forwarded))));
+                });
+            }
+        };
+    }
+
+    /**
+     * Aplica {@code next} al exchange que el filtro pasa a la cadena, sea de WebFlux o del gateway.
+     */
+    private static Object wrapChain(Object chain, UnaryOperator<ServerWebExchange> next) {
+        if (chain instanceof WebFilterChain webFilterChain) {
+            return (WebFilterChain) forwarded -> webFilterChain.filter(next.apply(forwarded));
+        }
+        if (chain instanceof GatewayFilterChain gatewayFilterChain) {
+            return (GatewayFilterChain) forwarded -> gatewayFilterChain.filter(next.apply(forwarded));
+        }
+        return chain;
+    }
+
+    /**
+     * Un proxy de clase ejecuta los métodos finales sobre sus propios campos (vacíos),
+     * así que esas clases (p. ej. un {@code getOrder()} final) se dejan sin instrumentar.
+     */
+    private static boolean isProxyable(Class<?> type) {
+        if (Modifier.isFinal(type.getModifiers())) {
+            return false;
+        }
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() != Object.class && Modifier.isFinal(method.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Void> invoke(Object target, Method method, Object[] arguments) {
+        try {
+            return (Mono<Void>) AopUtils.invokeJoinpointUsingReflection(target, method, arguments);
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -56,6 +57,12 @@ public class ContentCaptureUtil {
         return new ServerHttpResponseDecorator(response) {
             @Override
             public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // Un cuerpo ya comprimido (p. ej. por CompressionFilter) no es legible como texto
+                String contentEncoding = getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+                if (contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity")) {
+                    logger.info("Traza [{}] - Cuerpo de la respuesta omitido (Content-Encoding: {})", traceId, contentEncoding);
+                    return super.writeWith(body);
+                }
                 if (body instanceof Flux) {
                     Flux<? extends DataBuffer> fluxBody = (Flux<? extends DataBuffer>) body;
 
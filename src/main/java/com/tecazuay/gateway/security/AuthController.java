@@ -1,27 +1,54 @@
 package com.tecazuay.gateway.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Base64;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final KeyService keyService;
+    private final CacheControl cacheControl;
 
     @Autowired
-    public AuthController(KeyService keyService) {
+    public AuthController(KeyService keyService,
+                          @Value("${security.jwt.public-key-max-age:5m}") Duration publicKeyMaxAge) {
         this.keyService = keyService;
+        this.cacheControl = CacheControl.maxAge(publicKeyMaxAge).cachePublic();
     }
 
+    /**
+     * Llave pública actual en Base64 (X.509). Los bytes y el ETag se precalculan
+     * en cada rotación; WebFlux responde 304 cuando {@code If-None-Match} coincide.
+     */
     @GetMapping("/public-key")
-    public ResponseEntity<String> getPublicKey() {
-        String publicKeyBase64 = Base64.getEncoder().encodeToString(keyService.getPublicKey().getEncoded());
-        return ResponseEntity.ok(publicKeyBase64);
+    public ResponseEntity<byte[]> getPublicKey() {
+        PublishedKeys keys = keyService.getPublishedKeys();
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_PLAIN)
+                .eTag(keys.getPublicKeyETag())
+                .cacheControl(cacheControl)
+                .body(keys.getPublicKeyBase64());
+    }
+
+    /**
+     * Documento JWKS con la llave actual y las que siguen en periodo de solapamiento.
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<byte[]> getJwks() {
+        PublishedKeys keys = keyService.getPublishedKeys();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(keys.getJwksETag())
+                .cacheControl(cacheControl)
+                .body(keys.getJwks());
     }
 }
@@ -0,0 +1,66 @@
+package com.tecazuay.gateway.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Reemplaza el bearer token por una aserción de identidad firmada con HMAC
+ * antes de enrutar hacia los backends, para que no tengan que repetir la
+ * verificación RS256 que ya hizo {@link JwtAuthenticationFilter}.
+ * <p>
+ * Solo se registra con {@code security.identity-assertion.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "security.identity-assertion", name = "enabled", havingValue = "true")
+public class IdentityAssertionFilter implements GlobalFilter, Ordered {
+
+    private final IdentityAssertionSigner signer;
+    private final String headerName;
+
+    public IdentityAssertionFilter(@Value("${security.identity-assertion.secret}") String secret,
+                                   @Value("${security.identity-assertion.ttl:30s}") Duration ttl,
+                                   @Value("${security.identity-assertion.header:X-Gateway-Identity}") String headerName) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("security.identity-assertion.secret must be set when identity assertions are enabled");
+        }
+        this.signer = new IdentityAssertionSigner(Base64.getDecoder().decode(secret), ttl);
+        this.headerName = headerName;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .flatMap(context -> Mono.justOrEmpty(context.getAuthentication()))
+                .filter(Authentication::isAuthenticated)
+                .map(signer::sign)
+                .map(assertion -> exchange.mutate()
+                        .request(request -> request.headers(headers -> {
+                            headers.remove(HttpHeaders.AUTHORIZATION);
+                            headers.set(headerName, assertion);
+                        }))
+                        .build())
+                // Sin autenticación (rutas públicas) nunca se reenvía una aserción enviada por el cliente
+                .defaultIfEmpty(exchange.mutate()
+                        .request(request -> request.headers(headers -> headers.remove(headerName)))
+                        .build())
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de los filtros de enrutamiento que construyen la petición al backend
+        return Ordered.HIGHEST_PRECEDENCE + 100;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tecazuay.gateway.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Construye la aserción de identidad compacta a partir del {@link Authentication}
+ * que ya resolvió {@link JwtAuthenticationFilter}.
+ * <p>
+ * Comparte formato y clave con {@link IdentityAssertionVerifier}, que es lo que
+ * usan los backends para validarla.
+ */
+public class IdentityAssertionSigner {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final IdentityAssertionVerifier verifier;
+    private final Duration ttl;
+    private final Clock clock;
+
+    public IdentityAssertionSigner(byte[] secret, Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    public IdentityAssertionSigner(byte[] secret, Duration ttl, Clock clock) {
+        this.verifier = new IdentityAssertionVerifier(secret, clock);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Firma la identidad autenticada. La expiración es la menor entre
+     * ahora + ttl y la expiración del JWT original (si se conoce).
+     */
+    public String sign(Authentication authentication) {
+        String subject = authentication.getName();
+        if (subject == null || subject.indexOf(IdentityAssertionVerifier.FIELD_SEPARATOR) >= 0) {
+            throw new IllegalArgumentException("Subject cannot be encoded in an identity assertion");
+        }
+
+        Instant expiresAt = clock.instant().plus(ttl);
+        if (authentication.getDetails() instanceof Date tokenExpiration
+                && tokenExpiration.toInstant().isBefore(expiresAt)) {
+            expiresAt = tokenExpiration.toInstant();
+        }
+
+        StringBuilder payload = new StringBuilder(64)
+                .append(IdentityAssertionVerifier.VERSION).append(IdentityAssertionVerifier.FIELD_SEPARATOR)
+                .append(subject).append(IdentityAssertionVerifier.FIELD_SEPARATOR)
+                .append(expiresAt.getEpochSecond()).append(IdentityAssertionVerifier.FIELD_SEPARATOR);
+
+        boolean first = true;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String role = authority.getAuthority();
+            if (role == null || role.indexOf(IdentityAssertionVerifier.ROLE_SEPARATOR) >= 0
+                    || role.indexOf(IdentityAssertionVerifier.FIELD_SEPARATOR) >= 0) {
+                continue;
+            }
+            if (!first) {
+                payload.append(IdentityAssertionVerifier.ROLE_SEPARATOR);
+            }
+            payload.append(role);
+            first = false;
+        }
+
+        byte[] payloadBytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(verifier.sign(payloadBytes));
+    }
+}
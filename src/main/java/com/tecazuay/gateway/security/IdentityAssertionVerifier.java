@@ -0,0 +1,125 @@
+package com.tecazuay.gateway.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Verificador de la aserción de identidad firmada por el gateway.
+ * <p>
+ * No depende de Spring ni de jjwt: los backends pueden copiar esta clase
+ * (o depender del artefacto del gateway) para validar la cabecera con una
+ * sola operación HMAC-SHA256 en lugar de volver a verificar el JWT RS256.
+ * <p>
+ * Formato: {@code base64url(payload) + "." + base64url(hmac(payload))}, donde
+ * el payload es {@code v1\nsubject\nexpiresAtEpochSeconds\nrol1,rol2}.
+ */
+public final class IdentityAssertionVerifier {
+
+    static final String VERSION = "v1";
+    static final String ALGORITHM = "HmacSHA256";
+    static final char FIELD_SEPARATOR = '\n';
+    static final char ROLE_SEPARATOR = ',';
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityAssertionVerifier(byte[] secret) {
+        this(secret, Clock.systemUTC());
+    }
+
+    public IdentityAssertionVerifier(byte[] secret, Clock clock) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(() -> newMac(key));
+    }
+
+    /**
+     * Valida firma y expiración de la aserción.
+     *
+     * @param assertion Valor de la cabecera enviada por el gateway
+     * @return La identidad contenida en la aserción
+     * @throws IllegalArgumentException si la aserción está mal formada, la firma no coincide o expiró
+     */
+    public VerifiedIdentity verify(String assertion) {
+        if (assertion == null) {
+            throw new IllegalArgumentException("Missing identity assertion");
+        }
+        int dot = assertion.indexOf('.');
+        if (dot <= 0 || dot == assertion.length() - 1) {
+            throw new IllegalArgumentException("Malformed identity assertion");
+        }
+
+        byte[] payload = DECODER.decode(assertion.substring(0, dot));
+        byte[] signature = DECODER.decode(assertion.substring(dot + 1));
+
+        // Comparación en tiempo constante para no filtrar información de la firma
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw new IllegalArgumentException("Invalid identity assertion signature");
+        }
+
+        VerifiedIdentity identity = parse(new String(payload, StandardCharsets.UTF_8));
+        if (!clock.instant().isBefore(identity.expiresAt())) {
+            throw new IllegalArgumentException("Identity assertion expired");
+        }
+        return identity;
+    }
+
+    byte[] sign(byte[] payload) {
+        Mac mac = macs.get();
+        // doFinal reinicia el Mac, por lo que puede reutilizarse en el mismo hilo
+        return mac.doFinal(payload);
+    }
+
+    private static VerifiedIdentity parse(String payload) {
+        String[] fields = payload.split(String.valueOf(FIELD_SEPARATOR), -1);
+        if (fields.length != 4 || !VERSION.equals(fields[0])) {
+            throw new IllegalArgumentException("Unsupported identity assertion payload");
+        }
+
+        Instant expiresAt;
+        try {
+            expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid identity assertion expiry", e);
+        }
+
+        List<String> roles = Collections.emptyList();
+        if (!fields[3].isEmpty()) {
+            roles = new ArrayList<>();
+            for (String role : fields[3].split(String.valueOf(ROLE_SEPARATOR))) {
+                roles.add(role);
+            }
+            roles = Collections.unmodifiableList(roles);
+        }
+
+        return new VerifiedIdentity(fields[1], roles, expiresAt);
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Error initializing " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Identidad extraída de una aserción válida.
+     */
+    public record VerifiedIdentity(String subject, List<String> roles, Instant expiresAt) {
+    }
+}
@@ -1,9 +1,14 @@
 package com.tecazuay.gateway.security;
 
+import com.tecazuay.gateway.diagnostics.KeyFetchEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -16,30 +21,103 @@ import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 
 @Service
 public class KeyService {
 
-    private final KeyPair keyPair;
+    private static final Logger logger = LoggerFactory.getLogger(KeyService.class);
+
+    // Instantánea inmutable: se reemplaza completa en cada rotación
+    private volatile PublishedKeys publishedKeys;
+    private final boolean rotationEnabled;
+    private final Duration rotationOverlap;
     private final CacheManager cacheManager;
     private static final String PUBLIC_KEY_CACHE = "publicKeyCache";
     private static final String PUBLIC_KEY_CACHE_KEY = "authServicePublicKey";
+    private static final String AUTH_SERVICE_PUBLIC_KEY_URI = "https://auth-pajw42smtq-ew.a.run.app/api/auth/public-key";
     private final WebClient webClient;
+    private final Duration publicKeyFetchTimeout;
 
     @Autowired
-    public KeyService(CacheManager cacheManager) {
-        this.keyPair = generateRsaKey();
+    public KeyService(CacheManager cacheManager,
+                      @Value("${security.jwt.public-key-fetch-timeout:3s}") Duration publicKeyFetchTimeout,
+                      @Value("${security.jwt.key-rotation.enabled:true}") boolean rotationEnabled,
+                      @Value("${security.jwt.key-rotation.overlap:1h}") Duration rotationOverlap) {
+        this.publishedKeys = new PublishedKeys(List.of(newSigningKey()));
+        this.rotationEnabled = rotationEnabled;
+        this.rotationOverlap = rotationOverlap;
         this.cacheManager = cacheManager;
         this.webClient = WebClient.builder().build();
+        this.publicKeyFetchTimeout = publicKeyFetchTimeout;
     }
 
     public RSAPublicKey getPublicKey() {
-        return (RSAPublicKey) keyPair.getPublic();
+        return (RSAPublicKey) publishedKeys.current().keyPair().getPublic();
     }
 
     public RSAPrivateKey getPrivateKey() {
-        return (RSAPrivateKey) keyPair.getPrivate();
+        return (RSAPrivateKey) publishedKeys.current().keyPair().getPrivate();
+    }
+
+    /**
+     * Identificador ({@code kid}) de la llave de firma actual.
+     */
+    public String getKeyId() {
+        return publishedKeys.current().kid();
+    }
+
+    /**
+     * Llaves publicadas; las que terminaron su periodo de solapamiento se retiran
+     * aquí mismo en lugar de esperar a la siguiente rotación.
+     */
+    PublishedKeys getPublishedKeys() {
+        PublishedKeys snapshot = publishedKeys;
+        if (System.currentTimeMillis() >= snapshot.getNextRetireAtMillis()) {
+            return pruneRetiredKeys();
+        }
+        return snapshot;
+    }
+
+    private synchronized PublishedKeys pruneRetiredKeys() {
+        long now = System.currentTimeMillis();
+        PublishedKeys previous = publishedKeys;
+        if (now < previous.getNextRetireAtMillis()) {
+            return previous;
+        }
+        publishedKeys = previous.withoutRetired(now);
+        logger.info("Llaves retiradas del JWKS: llaves publicadas={}", publishedKeys.getKeys().size());
+        return publishedKeys;
+    }
+
+    /**
+     * Genera una nueva llave de firma. La anterior sigue publicada en el JWKS
+     * durante el periodo de solapamiento para que los tokens ya emitidos
+     * puedan verificarse.
+     */
+    @Scheduled(initialDelayString = "${security.jwt.key-rotation.interval:24h}",
+               fixedDelayString = "${security.jwt.key-rotation.interval:24h}")
+    public synchronized void rotateKeys() {
+        if (!rotationEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<PublishedKeys.SigningKey> keys = new ArrayList<>();
+        keys.add(newSigningKey());
+
+        PublishedKeys previous = publishedKeys;
+        keys.add(previous.current().retireAt(now + rotationOverlap.toMillis()));
+        for (PublishedKeys.SigningKey key : previous.getKeys().subList(1, previous.getKeys().size())) {
+            if (key.retireAtMillis() > now) {
+                keys.add(key);
+            }
+        }
+
+        publishedKeys = new PublishedKeys(keys);
+        logger.info("Llave del gateway rotada: kid={}, llaves publicadas={}", getKeyId(), keys.size());
     }
 
     /**
@@ -61,12 +139,18 @@ public class KeyService {
         }
 
         // Si no está en caché, la solicitamos al servicio de autenticación
+        KeyFetchEvent event = new KeyFetchEvent();
         return webClient.get()
-                .uri("https://auth-pajw42smtq-ew.a.run.app/api/auth/public-key")
+                .uri(AUTH_SERVICE_PUBLIC_KEY_URI)
                 .retrieve()
                 .bodyToMono(String.class)
+                // Evita que una petición de clave colgada siga ocupando al servicio de autenticación
+                .timeout(publicKeyFetchTimeout)
                 .map(this::convertToPublicKey)
+                .doOnSubscribe(subscription -> event.begin())
+                .doOnError(e -> commitKeyFetch(event, false, e.getMessage()))
                 .doOnSuccess(publicKey -> {
+                    commitKeyFetch(event, true, null);
                     // Almacenar la llave en caché
                     if (cache != null) {
                         cache.put(PUBLIC_KEY_CACHE_KEY, publicKey);
@@ -74,6 +158,16 @@ public class KeyService {
                 });
     }
 
+    private void commitKeyFetch(KeyFetchEvent event, boolean success, String error) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.uri = AUTH_SERVICE_PUBLIC_KEY_URI;
+            event.success = success;
+            event.error = error;
+            event.commit();
+        }
+    }
+
     private RSAPublicKey convertToPublicKey(String base64PublicKey) {
         try {
             byte[] keyBytes = Base64.getDecoder().decode(base64PublicKey);
@@ -85,6 +179,11 @@ public class KeyService {
         }
     }
 
+    private PublishedKeys.SigningKey newSigningKey() {
+        KeyPair keyPair = generateRsaKey();
+        return new PublishedKeys.SigningKey(PublishedKeys.thumbprint((RSAPublicKey) keyPair.getPublic()), keyPair, Long.MAX_VALUE);
+    }
+
     private KeyPair generateRsaKey() {
         try {
             KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
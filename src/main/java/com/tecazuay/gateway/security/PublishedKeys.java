@@ -0,0 +1,133 @@
+package com.tecazuay.gateway.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Instantánea inmutable de las llaves publicadas por el gateway.
+ * <p>
+ * Las representaciones (Base64 de la llave actual y documento JWKS con todas
+ * las llaves en periodo de solapamiento) y sus ETags se calculan una sola vez
+ * al crear la instantánea, no en cada petición.
+ */
+final class PublishedKeys {
+
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final List<SigningKey> keys;
+    private final byte[] publicKeyBase64;
+    private final String publicKeyETag;
+    private final byte[] jwks;
+    private final String jwksETag;
+    private final long nextRetireAtMillis;
+
+    /**
+     * @param keys Llaves publicadas; la primera es la llave de firma actual
+     */
+    PublishedKeys(List<SigningKey> keys) {
+        this.keys = List.copyOf(keys);
+        this.publicKeyBase64 = Base64.getEncoder()
+                .encode(current().keyPair().getPublic().getEncoded());
+        this.publicKeyETag = "\"" + current().kid() + "\"";
+
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < this.keys.size(); i++) {
+            SigningKey key = this.keys.get(i);
+            RSAPublicKey publicKey = (RSAPublicKey) key.keyPair().getPublic();
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\",\"kid\":\"").append(key.kid())
+                    .append("\",\"n\":\"").append(encodeUnsigned(publicKey.getModulus()))
+                    .append("\",\"e\":\"").append(encodeUnsigned(publicKey.getPublicExponent()))
+                    .append("\"}");
+        }
+        json.append("]}");
+        this.jwks = json.toString().getBytes(StandardCharsets.UTF_8);
+        this.jwksETag = "\"" + HexFormat.of().formatHex(sha256(jwks), 0, 16) + "\"";
+        this.nextRetireAtMillis = this.keys.stream().mapToLong(SigningKey::retireAtMillis).min().orElse(Long.MAX_VALUE);
+    }
+
+    /**
+     * Instante (epoch millis) en que vence la primera llave publicada.
+     */
+    long getNextRetireAtMillis() {
+        return nextRetireAtMillis;
+    }
+
+    /**
+     * @return nueva instantánea sin las llaves vencidas en {@code nowMillis}
+     */
+    PublishedKeys withoutRetired(long nowMillis) {
+        return new PublishedKeys(keys.stream().filter(key -> key.retireAtMillis() > nowMillis).toList());
+    }
+
+    SigningKey current() {
+        return keys.get(0);
+    }
+
+    List<SigningKey> getKeys() {
+        return keys;
+    }
+
+    byte[] getPublicKeyBase64() {
+        return publicKeyBase64;
+    }
+
+    String getPublicKeyETag() {
+        return publicKeyETag;
+    }
+
+    byte[] getJwks() {
+        return jwks;
+    }
+
+    String getJwksETag() {
+        return jwksETag;
+    }
+
+    /**
+     * Identificador de llave según RFC 7638 (thumbprint SHA-256 del JWK).
+     */
+    static String thumbprint(RSAPublicKey publicKey) {
+        String canonical = "{\"e\":\"" + encodeUnsigned(publicKey.getPublicExponent())
+                + "\",\"kty\":\"RSA\",\"n\":\"" + encodeUnsigned(publicKey.getModulus()) + "\"}";
+        return URL_ENCODER.encodeToString(sha256(canonical.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String encodeUnsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // toByteArray agrega un byte de signo cuando el bit más alto está activo
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return URL_ENCODER.encodeToString(bytes);
+    }
+
+    private static byte[] sha256(byte[] input) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Par de llaves con su {@code kid} y el instante (epoch millis) en que deja de
+     * publicarse; {@code Long.MAX_VALUE} para la llave actual.
+     */
+    record SigningKey(String kid, KeyPair keyPair, long retireAtMillis) {
+
+        SigningKey retireAt(long retireAtMillis) {
+            return new SigningKey(kid, keyPair, retireAtMillis);
+        }
+    }
+}
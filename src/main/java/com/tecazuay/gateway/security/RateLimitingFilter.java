@@ -1,5 +1,6 @@
 package com.tecazuay.gateway.security;
 
+import com.tecazuay.gateway.diagnostics.RateLimitRejectedEvent;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
@@ -45,6 +46,13 @@ public class RateLimitingFilter implements WebFilter {
             return chain.filter(exchange);
         } else {
             // Too many requests, return 429 status
+            RateLimitRejectedEvent event = new RateLimitRejectedEvent();
+            if (event.shouldCommit()) {
+                event.clientIp = clientIp;
+                event.path = path;
+                event.loginBucket = path.equals("/api/auth/login");
+                event.commit();
+            }
             exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
             return exchange.getResponse().setComplete();
         }
@@ -1,5 +1,6 @@
 package com.tecazuay.gateway.security;
 
+import com.tecazuay.gateway.traffic.LoadSheddingFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,12 +22,15 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final RateLimitingFilter rateLimitingFilter;
+    private final LoadSheddingFilter loadSheddingFilter;
 
     @Autowired
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-                         RateLimitingFilter rateLimitingFilter) {
+                         RateLimitingFilter rateLimitingFilter,
+                         LoadSheddingFilter loadSheddingFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.rateLimitingFilter = rateLimitingFilter;
+        this.loadSheddingFilter = loadSheddingFilter;
     }
 
     @Bean
@@ -46,12 +50,22 @@ public class SecurityConfig {
                 )
                 .authorizeExchange(exchanges -> exchanges
                         // Paths that don't require authentication
-                        .pathMatchers("/api/auth/login", "/api/auth/register", "/api/auth/public-key").permitAll()
+                        .pathMatchers("/api/auth/login", "/api/auth/register", "/api/auth/public-key", "/api/auth/jwks").permitAll()
+                        // Health checks from load balancers and orchestrators carry no token
+                        .pathMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // Diagnostics (JFR) only for administrators
+                        .pathMatchers("/api/admin/**").hasAuthority("ROLE_ADMIN")
+                        // Per-stage allocation profiles (read and reset) only for administrators
+                        .pathMatchers("/actuator/allocations", "/actuator/allocations/**").hasAuthority("ROLE_ADMIN")
+                        // Metrics expose per-route internals and backend URIs
+                        .pathMatchers("/actuator/metrics", "/actuator/metrics/**").hasAuthority("ROLE_ADMIN")
                         // All other paths require authentication
                         .anyExchange().authenticated()
                 )
                 .addFilterBefore(rateLimitingFilter, SecurityWebFiltersOrder.AUTHENTICATION)
                 .addFilterAt(jwtAuthenticationFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                // Load shedding after authentication so JWT roles are available
+                .addFilterAfter(loadSheddingFilter, SecurityWebFiltersOrder.AUTHENTICATION)
                 .build();
     }
 
@@ -0,0 +1,289 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Comprime con gzip las respuestas de las rutas configuradas cuando el cliente
+ * lo acepta, el tipo de contenido es comprimible y el tamaño supera el umbral.
+ * <p>
+ * Comprime los buffers a medida que llegan del backend usando {@link DeflaterPool},
+ * y deja pasar sin cambios las respuestas que ya traen {@code Content-Encoding}.
+ * {@code server.compression} sigue cubriendo las respuestas propias del gateway;
+ * Netty no vuelve a comprimir lo que ya trae {@code Content-Encoding}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "gateway.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionFilter implements GlobalFilter, Ordered {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final DeflaterPool deflaterPool;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> routes;
+    private final List<MediaType> mimeTypes;
+    private final long minResponseSize;
+
+    @Autowired
+    public CompressionFilter(MeterRegistry meterRegistry,
+                             @Value("${gateway.compression.routes:}") List<String> routes,
+                             @Value("${gateway.compression.mime-types:application/json,text/plain,text/html,text/css,application/javascript}") List<MediaType> mimeTypes,
+                             @Value("${gateway.compression.min-response-size:1024}") long minResponseSize,
+                             @Value("${gateway.compression.level:6}") int level,
+                             @Value("${gateway.compression.pool-size:64}") int poolSize) {
+        this.meterRegistry = meterRegistry;
+        this.routes = Set.copyOf(routes);
+        this.mimeTypes = mimeTypes;
+        this.minResponseSize = minResponseSize;
+        this.deflaterPool = new DeflaterPool(poolSize, level);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        if ((!routes.isEmpty() && !routes.contains(routeId))
+                || HttpMethod.HEAD.equals(exchange.getRequest().getMethod())
+                || !acceptsGzip(exchange.getRequest().getHeaders())) {
+            return chain.filter(exchange);
+        }
+
+        return chain.filter(exchange.mutate().response(new CompressingResponse(exchange.getResponse(), routeId)).build());
+    }
+
+    private boolean acceptsGzip(HttpHeaders headers) {
+        // Una entrada explícita para gzip prevalece sobre el comodín; q=0 significa rechazo
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                    gzipQuality = quality(parts);
+                } else if (name.equals("*")) {
+                    wildcardQuality = quality(parts);
+                }
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return wildcardQuality != null && wildcardQuality > 0;
+    }
+
+    private double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // Un peso ilegible no cuenta como aceptación
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private boolean shouldCompress(ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        HttpStatusCode status = response.getStatusCode();
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+                || (status != null && (status.value() == 204 || status.value() == 304))) {
+            return false;
+        }
+        // Sin Content-Length (respuesta por chunks) se asume que vale la pena comprimir
+        long contentLength = headers.getContentLength();
+        if (contentLength >= 0 && contentLength < minResponseSize) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        for (MediaType mimeType : mimeTypes) {
+            if (mimeType.isCompatibleWith(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        // El decorador debe estar en el exchange antes de que NettyWriteResponseFilter escriba,
+        // y por debajo de MirrorResponseFilter para que este vea el cuerpo sin comprimir
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+
+        CompressingResponse(ServerHttpResponse delegate, String routeId) {
+            super(delegate);
+            this.routeId = routeId;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!shouldCompress(getDelegate())) {
+                return super.writeWith(body);
+            }
+
+            HttpHeaders headers = getDelegate().getHeaders();
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+            DataBufferFactory bufferFactory = bufferFactory();
+            GzipStream stream = new GzipStream(deflaterPool.borrow());
+
+            Flux<DataBuffer> compressed = Flux.<DataBuffer>just(bufferFactory.wrap(GZIP_HEADER))
+                    .concatWith(Flux.from(body).map(dataBuffer -> stream.compress(dataBuffer, bufferFactory)))
+                    .concatWith(Mono.fromSupplier(() -> stream.finish(bufferFactory)))
+                    .<DataBuffer>handle((dataBuffer, sink) -> {
+                        // Con NO_FLUSH zlib puede no producir salida para un chunk pequeño
+                        if (dataBuffer.readableByteCount() > 0) {
+                            sink.next(dataBuffer);
+                        } else {
+                            DataBufferUtils.release(dataBuffer);
+                        }
+                    })
+                    .doFinally(signalType -> stream.close());
+
+            return super.writeWith(compressed);
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(publisher -> publisher));
+        }
+
+        /**
+         * Estado de compresión de una respuesta: acumula bytes de entrada/salida y
+         * tiempo de CPU en el event loop para exportarlos al terminar.
+         */
+        private class GzipStream {
+
+            private final DeflaterPool.PooledDeflater pooled;
+            private long inputBytes;
+            private long outputBytes = GZIP_HEADER.length;
+            private long cpuNanos;
+            private boolean closed;
+
+            GzipStream(DeflaterPool.PooledDeflater pooled) {
+                this.pooled = pooled;
+            }
+
+            // compress, finish y close se sincronizan: una cancelación puede llegar desde otro
+            // hilo mientras se comprime, y el deflater no debe volver al pool en pleno uso
+            synchronized DataBuffer compress(DataBuffer input, DataBufferFactory bufferFactory) {
+                if (closed) {
+                    DataBufferUtils.release(input);
+                    return bufferFactory.allocateBuffer(0);
+                }
+                long start = System.nanoTime();
+                Deflater deflater = pooled.deflater();
+                DataBuffer output = bufferFactory.allocateBuffer(Math.max(64, input.readableByteCount() / 2));
+                try (DataBuffer.ByteBufferIterator iterator = input.readableByteBuffers()) {
+                    while (iterator.hasNext()) {
+                        ByteBuffer chunk = iterator.next();
+                        inputBytes += chunk.remaining();
+                        pooled.crc().update(chunk.duplicate());
+                        deflater.setInput(chunk);
+                        while (!deflater.needsInput()) {
+                            drain(deflater.deflate(pooled.scratch()), output);
+                        }
+                    }
+                } finally {
+                    DataBufferUtils.release(input);
+                }
+                cpuNanos += System.nanoTime() - start;
+                return output;
+            }
+
+            synchronized DataBuffer finish(DataBufferFactory bufferFactory) {
+                if (closed) {
+                    return bufferFactory.allocateBuffer(0);
+                }
+                long start = System.nanoTime();
+                Deflater deflater = pooled.deflater();
+                DataBuffer output = bufferFactory.allocateBuffer(256);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    drain(deflater.deflate(pooled.scratch()), output);
+                }
+                // Trailer gzip: CRC32 y tamaño original, ambos little-endian
+                writeIntLE(output, (int) pooled.crc().getValue());
+                writeIntLE(output, (int) inputBytes);
+                outputBytes += 8;
+                cpuNanos += System.nanoTime() - start;
+                record();
+                return output;
+            }
+
+            private void drain(int length, DataBuffer output) {
+                if (length > 0) {
+                    output.ensureWritable(length);
+                    output.write(pooled.scratch(), 0, length);
+                    outputBytes += length;
+                }
+            }
+
+            private void writeIntLE(DataBuffer output, int value) {
+                output.write((byte) value);
+                output.write((byte) (value >>> 8));
+                output.write((byte) (value >>> 16));
+                output.write((byte) (value >>> 24));
+            }
+
+            private void record() {
+                meterRegistry.timer("gateway.compression.cpu", "route", routeId).record(cpuNanos, TimeUnit.NANOSECONDS);
+                meterRegistry.counter("gateway.compression.bytes", "route", routeId, "stage", "in").increment(inputBytes);
+                meterRegistry.counter("gateway.compression.bytes", "route", routeId, "stage", "out").increment(outputBytes);
+                if (inputBytes > 0) {
+                    meterRegistry.summary("gateway.compression.ratio", "route", routeId).record((double) outputBytes / inputBytes);
+                }
+            }
+
+            synchronized void close() {
+                // Se invoca al completar, fallar o cancelar: el deflater vuelve al pool una sola vez
+                if (!closed) {
+                    closed = true;
+                    deflaterPool.release(pooled);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Aplica un presupuesto de tiempo por ruta contado desde la llegada al gateway.
+ * <p>
+ * El tiempo restante se envía al backend en una cabecera y la llamada se cancela
+ * cuando vence el plazo (504, o conexión abortada si la respuesta ya se estaba
+ * enviando) o cuando el cliente se desconecta; ambos casos se cuentan por ruta.
+ */
+@Component
+public class DeadlineFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    private final DeadlineProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public DeadlineFilter(DeadlineProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+
+        Long arrivalNanos = exchange.getAttribute(RequestArrivalFilter.ARRIVAL_NANOS_ATTRIBUTE);
+        long elapsedNanos = arrivalNanos != null ? System.nanoTime() - arrivalNanos : 0;
+        long remainingMillis = Math.min(properties.timeoutFor(routeId).toMillis(), clientBudgetMillis(exchange))
+                - Duration.ofNanos(elapsedNanos).toMillis();
+
+        if (remainingMillis <= 0) {
+            return deadlineExceeded(exchange, routeId,
+                    new TimeoutException("Deadline exceeded before routing"));
+        }
+
+        ServerWebExchange deadlineExchange = exchange.mutate()
+                .request(request -> request.headers(headers ->
+                        headers.set(properties.getHeader(), String.valueOf(remainingMillis))))
+                .build();
+
+        // timeout() y la desconexión del cliente cancelan la suscripción, lo que cierra la llamada al backend
+        return chain.filter(deadlineExchange)
+                .timeout(Duration.ofMillis(remainingMillis))
+                .doOnCancel(() -> meterRegistry.counter("gateway.deadline.cancelled", "route", routeId).increment())
+                .onErrorResume(TimeoutException.class, e -> deadlineExceeded(deadlineExchange, routeId, e));
+    }
+
+    private long clientBudgetMillis(ServerWebExchange exchange) {
+        // Un salto anterior puede haber dejado menos presupuesto del configurado
+        String header = exchange.getRequest().getHeaders().getFirst(properties.getHeader());
+        if (header != null) {
+            try {
+                return Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                logger.debug("Cabecera {} inválida: {}", properties.getHeader(), header);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private Mono<Void> deadlineExceeded(ServerWebExchange exchange, String routeId, TimeoutException cause) {
+        meterRegistry.counter("gateway.deadline.exceeded", "route", routeId).increment();
+        if (exchange.getResponse().isCommitted()) {
+            // La respuesta ya empezó a enviarse: el error hace que reactor-netty corte la
+            // conexión en lugar de cerrar con un cuerpo truncado que parece completo
+            return Mono.error(cause);
+        }
+        exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        return exchange.getResponse().setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        // Antes de la aserción de identidad y del resto de filtros de la ruta
+        return Ordered.HIGHEST_PRECEDENCE + 50;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tecazuay.gateway.traffic;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Presupuesto de tiempo por ruta ({@code gateway.deadline.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.deadline")
+public class DeadlineProperties {
+
+    // Presupuesto para rutas sin configuración propia
+    private Duration defaultTimeout = Duration.ofSeconds(10);
+
+    // Cabecera con los milisegundos restantes que se envía (y acepta) entre saltos
+    private String header = "X-Request-Timeout-Ms";
+
+    // Presupuesto por id de ruta
+    private Map<String, Duration> routes = new HashMap<>();
+
+    public Duration timeoutFor(String routeId) {
+        return routeId != null ? routes.getOrDefault(routeId, defaultTimeout) : defaultTimeout;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public Map<String, Duration> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Duration> routes) {
+        this.routes = routes;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tecazuay.gateway.traffic;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Pool acotado de {@link Deflater} (con su CRC32 y buffer de trabajo) para no
+ * reservar memoria nativa de zlib en cada respuesta comprimida.
+ */
+class DeflaterPool {
+
+    static final int SCRATCH_SIZE = 8 * 1024;
+
+    private final BlockingQueue<PooledDeflater> pool;
+    private final int level;
+
+    DeflaterPool(int capacity, int level) {
+        this.pool = new ArrayBlockingQueue<>(capacity);
+        this.level = level;
+    }
+
+    PooledDeflater borrow() {
+        PooledDeflater deflater = pool.poll();
+        return deflater != null ? deflater : new PooledDeflater(new Deflater(level, true), new CRC32(), new byte[SCRATCH_SIZE]);
+    }
+
+    void release(PooledDeflater deflater) {
+        deflater.deflater().reset();
+        deflater.crc().reset();
+        if (!pool.offer(deflater)) {
+            // Pool lleno: liberar la memoria nativa de inmediato
+            deflater.deflater().end();
+        }
+    }
+
+    /**
+     * Deflater en modo raw (sin cabecera zlib) para envolverlo en formato gzip.
+     */
+    record PooledDeflater(Deflater deflater, CRC32 crc, byte[] scratch) {
+    }
+}
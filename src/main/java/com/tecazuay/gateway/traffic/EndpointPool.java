@@ -0,0 +1,93 @@
+package com.tecazuay.gateway.traffic;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Endpoints de una ruta con selección power-of-two-choices y expulsión de outliers.
+ */
+class EndpointPool {
+
+    private final List<UpstreamEndpoint> endpoints = new ArrayList<>();
+    private final LoadBalancingProperties properties;
+
+    EndpointPool(List<URI> uris, LoadBalancingProperties properties) {
+        for (URI uri : uris) {
+            endpoints.add(new UpstreamEndpoint(uri));
+        }
+        this.properties = properties;
+    }
+
+    List<UpstreamEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Elige dos endpoints al azar entre los admitidos y devuelve el de menor costo.
+     * Si todos están expulsados se elige entre todos para no dejar la ruta sin servicio.
+     */
+    UpstreamEndpoint choose() {
+        long now = System.nanoTime();
+        List<UpstreamEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (UpstreamEndpoint endpoint : endpoints) {
+            if (!endpoint.isEjected(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            candidates = endpoints;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        UpstreamEndpoint a = candidates.get(first);
+        UpstreamEndpoint b = candidates.get(second);
+        if (!a.hasLatencySample() || !b.hasLatencySample()) {
+            // Sin latencia medida el producto no compara nada: se decide por la cola
+            return a.outstanding() <= b.outstanding() ? a : b;
+        }
+        return a.score() <= b.score() ? a : b;
+    }
+
+    /**
+     * Registra el resultado de una petición y expulsa el endpoint si acumula
+     * demasiados fallos consecutivos, respetando el máximo de expulsiones.
+     *
+     * @return true si el endpoint fue expulsado
+     */
+    boolean record(UpstreamEndpoint endpoint, long elapsedNanos, boolean error) {
+        boolean failed = error || elapsedNanos > properties.getSlowThreshold().toNanos();
+        int failures = endpoint.complete(elapsedNanos, failed);
+        if (failures < properties.getConsecutiveFailures()) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        synchronized (this) {
+            int ejected = 0;
+            for (UpstreamEndpoint candidate : endpoints) {
+                if (candidate.isEjected(now)) {
+                    ejected++;
+                }
+            }
+            if (endpoint.isEjected(now) || ejected + 1 > endpoints.size() * properties.getMaxEjectionRatio()) {
+                return false;
+            }
+            endpoint.eject(now + properties.getProbation().toNanos());
+            return true;
+        }
+    }
+
+    boolean isEjected(UpstreamEndpoint endpoint) {
+        return endpoint.isEjected(System.nanoTime());
+    }
+}
@@ -0,0 +1,107 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reparte el tráfico de una ruta entre varios endpoints configurados en
+ * {@code gateway.load-balancing.routes.<routeId>}, eligiendo con
+ * power-of-two-choices sobre latencia EWMA y peticiones pendientes.
+ * <p>
+ * Se ejecuta después de {@code RouteToRequestUrlFilter}, reemplazando esquema,
+ * host y puerto de la URL de destino ya calculada.
+ */
+@Component
+public class LatencyAwareLoadBalancerFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyAwareLoadBalancerFilter.class);
+
+    private static final int LOAD_BALANCER_FILTER_ORDER = 10150;
+
+    private final Map<String, EndpointPool> pools = new HashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LatencyAwareLoadBalancerFilter(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        properties.getRoutes().forEach((routeId, uris) -> {
+            if (!uris.isEmpty()) {
+                EndpointPool pool = new EndpointPool(uris, properties);
+                pools.put(routeId, pool);
+                registerMetrics(routeId, pool);
+            }
+        });
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        EndpointPool pool = route != null ? pools.get(route.getId()) : null;
+        if (pool == null || requestUrl == null) {
+            return chain.filter(exchange);
+        }
+
+        UpstreamEndpoint endpoint = pool.choose();
+        URI target = UriComponentsBuilder.fromUri(requestUrl)
+                .scheme(endpoint.getUri().getScheme())
+                .host(endpoint.getUri().getHost())
+                .port(endpoint.getUri().getPort())
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, target);
+        meterRegistry.counter("gateway.lb.requests", "route", route.getId(), "endpoint", endpoint.getUri().toString()).increment();
+
+        endpoint.start();
+        long start = System.nanoTime();
+        AtomicBoolean error = new AtomicBoolean();
+        return chain.filter(exchange)
+                .doOnError(throwable -> error.set(true))
+                .doFinally(signalType -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = error.get() || (status != null && status.is5xxServerError());
+                    if (pool.record(endpoint, System.nanoTime() - start, failed)) {
+                        logger.warn("Endpoint {} de la ruta {} expulsado temporalmente", endpoint.getUri(), route.getId());
+                        meterRegistry.counter("gateway.lb.ejections", "route", route.getId(), "endpoint", endpoint.getUri().toString()).increment();
+                    }
+                });
+    }
+
+    private void registerMetrics(String routeId, EndpointPool pool) {
+        for (UpstreamEndpoint endpoint : pool.getEndpoints()) {
+            List<Tag> tags = List.of(Tag.of("route", routeId), Tag.of("endpoint", endpoint.getUri().toString()));
+            Gauge.builder("gateway.lb.latency", endpoint, UpstreamEndpoint::latencyMillis)
+                    .tags(tags).baseUnit("milliseconds").register(meterRegistry);
+            Gauge.builder("gateway.lb.outstanding", endpoint, UpstreamEndpoint::outstanding)
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("gateway.lb.ejected", endpoint, e -> pool.isEjected(e) ? 1 : 0)
+                    .tags(tags).register(meterRegistry);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        // Misma posición que ReactiveLoadBalancerClientFilter: tras RouteToRequestUrlFilter (10000)
+        return LOAD_BALANCER_FILTER_ORDER;
+    }
+}
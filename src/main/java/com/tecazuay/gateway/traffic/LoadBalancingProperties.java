@@ -0,0 +1,74 @@
+package com.tecazuay.gateway.traffic;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints de backend por ruta y parámetros de expulsión de outliers
+ * ({@code gateway.load-balancing.*}).
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.load-balancing")
+public class LoadBalancingProperties {
+
+    // Endpoints por id de ruta; las rutas sin entrada usan su uri fija
+    private Map<String, List<URI>> routes = new HashMap<>();
+
+    // Latencia a partir de la cual una respuesta cuenta como fallo del endpoint
+    private Duration slowThreshold = Duration.ofSeconds(2);
+
+    // Fallos consecutivos (5xx, errores o respuestas lentas) antes de expulsar
+    private int consecutiveFailures = 5;
+
+    // Tiempo fuera de rotación antes de volver a admitir el endpoint
+    private Duration probation = Duration.ofSeconds(30);
+
+    // Fracción máxima de endpoints de una ruta que pueden estar expulsados a la vez
+    private double maxEjectionRatio = 0.5;
+
+    public Map<String, List<URI>> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, List<URI>> routes) {
+        this.routes = routes;
+    }
+
+    public Duration getSlowThreshold() {
+        return slowThreshold;
+    }
+
+    public void setSlowThreshold(Duration slowThreshold) {
+        this.slowThreshold = slowThreshold;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public Duration getProbation() {
+        return probation;
+    }
+
+    public void setProbation(Duration probation) {
+        this.probation = probation;
+    }
+
+    public double getMaxEjectionRatio() {
+        return maxEjectionRatio;
+    }
+
+    public void setMaxEjectionRatio(double maxEjectionRatio) {
+        this.maxEjectionRatio = maxEjectionRatio;
+    }
+}
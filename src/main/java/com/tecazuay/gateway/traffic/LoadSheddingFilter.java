@@ -0,0 +1,100 @@
+package com.tecazuay.gateway.traffic;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Descarta peticiones por clase de prioridad cuando {@link OverloadController}
+ * detecta sobrecarga, respondiendo 503 con {@code Retry-After}.
+ * <p>
+ * Se ejecuta después de {@code JwtAuthenticationFilter} para poder usar los
+ * roles del token al clasificar la petición.
+ */
+@Component
+public class LoadSheddingFilter implements WebFilter {
+
+    /**
+     * Atributo del exchange con la {@link PriorityClass} asignada a la petición.
+     */
+    public static final String PRIORITY_ATTRIBUTE = LoadSheddingFilter.class.getName() + ".priority";
+
+    private final OverloadController overloadController;
+    private final Set<String> priorityRoles;
+
+    @Autowired
+    public LoadSheddingFilter(OverloadController overloadController,
+                              @Value("${gateway.overload.priority-roles:ROLE_ADMIN}") List<String> priorityRoles) {
+        this.overloadController = overloadController;
+        this.priorityRoles = Set.copyOf(priorityRoles);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        // Al ser un bean también se registra fuera de la cadena de seguridad: solo se evalúa una vez
+        if (exchange.getAttribute(PRIORITY_ATTRIBUTE) != null) {
+            return chain.filter(exchange);
+        }
+
+        PriorityClass routePriority = classifyRoute(exchange.getRequest().getURI().getPath());
+
+        return ReactiveSecurityContextHolder.getContext()
+                .flatMap(context -> Mono.justOrEmpty(context.getAuthentication()))
+                .map(authentication -> hasPriorityRole(authentication) ? routePriority.promote() : routePriority)
+                .defaultIfEmpty(routePriority)
+                .flatMap(priority -> {
+                    exchange.getAttributes().put(PRIORITY_ATTRIBUTE, priority);
+
+                    if (!overloadController.tryAdmit(priority)) {
+                        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+                        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                                String.valueOf(Math.max(1, overloadController.getRetryAfter().toSeconds())));
+                        return exchange.getResponse().setComplete();
+                    }
+
+                    long start = System.nanoTime();
+                    return chain.filter(exchange)
+                            .doFinally(signalType -> overloadController.release(System.nanoTime() - start,
+                                    exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR) != null));
+                });
+    }
+
+    private PriorityClass classifyRoute(String path) {
+        if (path.startsWith("/actuator/health") || path.equals("/api/auth/public-key") || path.equals("/api/auth/jwks")) {
+            return PriorityClass.CRITICAL;
+        }
+        // El perfilado se necesita justamente durante los picos (solo ROLE_ADMIN, una grabación a la vez)
+        if (path.startsWith("/api/admin/diagnostics/")) {
+            return PriorityClass.CRITICAL;
+        }
+        if (path.startsWith("/api/auth/")) {
+            return PriorityClass.HIGH;
+        }
+        if (path.startsWith("/api/model/")) {
+            return PriorityClass.LOW;
+        }
+        return PriorityClass.NORMAL;
+    }
+
+    private boolean hasPriorityRole(Authentication authentication) {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (priorityRoles.contains(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
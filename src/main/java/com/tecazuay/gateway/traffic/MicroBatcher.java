@@ -0,0 +1,141 @@
+package com.tecazuay.gateway.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa peticiones individuales en una sola llamada al endpoint de lote.
+ * <p>
+ * Un lote se envía cuando vence la ventana desde el primer elemento o cuando
+ * se alcanza el tamaño máximo, lo que ocurra primero. El endpoint recibe un
+ * arreglo JSON de elementos con {@code id} y debe responder con un arreglo de
+ * {@code {"id", "status", "body"}}. Si la llamada falla, vence {@code timeout}
+ * o responde sin cuerpo, todos los elementos del lote terminan con error.
+ */
+public class MicroBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final String batchUri;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Duration timeout;
+
+    private List<PendingItem> pending = new ArrayList<>();
+    private Disposable windowTimer;
+
+    public MicroBatcher(WebClient webClient, ObjectMapper objectMapper, String batchUri,
+                        Duration window, int maxBatchSize, Duration timeout) {
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.batchUri = batchUri;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Encola un elemento y devuelve su resultado una vez que el lote responde.
+     *
+     * @param item Elemento a enviar; el campo {@code id} lo asigna el batcher
+     * @return Resultado del elemento con {@code status} y {@code body}
+     */
+    public Mono<JsonNode> submit(ObjectNode item) {
+        Sinks.One<JsonNode> sink = Sinks.one();
+        List<PendingItem> ready = null;
+
+        synchronized (this) {
+            pending.add(new PendingItem(item, sink));
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();
+            } else if (pending.size() == 1) {
+                windowTimer = Schedulers.parallel().schedule(this::flushOnWindow, window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (ready != null) {
+            send(ready);
+        }
+        return sink.asMono();
+    }
+
+    private void flushOnWindow() {
+        List<PendingItem> ready;
+        synchronized (this) {
+            ready = drain();
+        }
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+    }
+
+    // Debe llamarse con el monitor tomado
+    private List<PendingItem> drain() {
+        if (windowTimer != null) {
+            windowTimer.dispose();
+            windowTimer = null;
+        }
+        List<PendingItem> ready = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        return ready;
+    }
+
+    private void send(List<PendingItem> batch) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (int i = 0; i < batch.size(); i++) {
+            items.add(batch.get(i).item().put("id", i));
+        }
+
+        webClient.post()
+                .uri(batchUri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(items)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Batch response has no body")))
+                .timeout(timeout)
+                .subscribe(response -> dispatch(batch, response), error -> {
+                    logger.warn("Falló la llamada de lote a {} con {} elementos: {}", batchUri, batch.size(), error.getMessage());
+                    batch.forEach(pendingItem -> pendingItem.sink().tryEmitError(error));
+                });
+    }
+
+    private void dispatch(List<PendingItem> batch, JsonNode response) {
+        JsonNode[] results = new JsonNode[batch.size()];
+        for (JsonNode result : response) {
+            int id = result.path("id").asInt(-1);
+            if (id >= 0 && id < results.length) {
+                results[id] = result;
+            }
+        }
+
+        for (int i = 0; i < results.length; i++) {
+            Sinks.One<JsonNode> sink = batch.get(i).sink();
+            if (results[i] != null) {
+                sink.tryEmitValue(results[i]);
+            } else {
+                sink.tryEmitError(new IllegalStateException("Batch response is missing item " + i));
+            }
+        }
+    }
+
+    private record PendingItem(ObjectNode item, Sinks.One<JsonNode> sink) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultado conjunto de una petición primaria y su copia espejo. Cuando ambas
+ * terminan registra latencias y discrepancias de status y cuerpo.
+ */
+class MirrorComparison {
+
+    private final MeterRegistry meterRegistry;
+    private final String routeId;
+    private final long primaryStartNanos;
+
+    private Result primary;
+    private Result shadow;
+
+    MirrorComparison(MeterRegistry meterRegistry, String routeId, long primaryStartNanos) {
+        this.meterRegistry = meterRegistry;
+        this.routeId = routeId;
+        this.primaryStartNanos = primaryStartNanos;
+    }
+
+    /**
+     * Se invoca cuando la respuesta primaria terminó de escribirse al cliente.
+     */
+    void completePrimary(int status, byte[] digest) {
+        Result other;
+        synchronized (this) {
+            if (primary != null) {
+                return;
+            }
+            primary = new Result(status, digest, System.nanoTime() - primaryStartNanos);
+            other = shadow;
+        }
+        if (other != null) {
+            compare(primary, other);
+        }
+    }
+
+    void completeShadow(int status, byte[] digest, long elapsedNanos) {
+        Result other;
+        synchronized (this) {
+            shadow = new Result(status, digest, elapsedNanos);
+            other = primary;
+        }
+        if (other != null) {
+            compare(other, shadow);
+        }
+    }
+
+    private void compare(Result primary, Result shadow) {
+        meterRegistry.timer("gateway.mirror.latency", "route", routeId, "target", "primary")
+                .record(primary.elapsedNanos(), TimeUnit.NANOSECONDS);
+        meterRegistry.timer("gateway.mirror.latency", "route", routeId, "target", "shadow")
+                .record(shadow.elapsedNanos(), TimeUnit.NANOSECONDS);
+        // Diferencia con signo en una sola serie para comparar revisiones de un vistazo
+        meterRegistry.summary("gateway.mirror.latency.delta", "route", routeId)
+                .record((shadow.elapsedNanos() - primary.elapsedNanos()) / 1_000_000.0);
+
+        meterRegistry.counter("gateway.mirror.compared", "route", routeId).increment();
+        if (primary.status() != shadow.status()) {
+            meterRegistry.counter("gateway.mirror.mismatch", "route", routeId, "type", "status").increment();
+        }
+        if (!Arrays.equals(primary.digest(), shadow.digest())) {
+            meterRegistry.counter("gateway.mirror.mismatch", "route", routeId, "type", "body").increment();
+        }
+    }
+
+    static void update(MessageDigest digest, DataBuffer dataBuffer) {
+        // Recorre vistas del buffer sin mover su posición de lectura
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer byteBuffer = iterator.next();
+                digest.update(byteBuffer);
+            }
+        }
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Result(int status, byte[] digest, long elapsedNanos) {
+    }
+}
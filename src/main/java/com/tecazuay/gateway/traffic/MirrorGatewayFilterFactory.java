@@ -0,0 +1,260 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.RemoveHopByHopHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Filtro por ruta que envía una copia muestreada de cada petición a un backend
+ * sombra, sin esperar su respuesta:
+ * <pre>
+ * filters:
+ *   - name: Mirror
+ *     args:
+ *       shadow-uri: https://backend-canary
+ *       sample-rate: 0.1
+ *       max-in-flight: 20
+ * </pre>
+ * La respuesta primaria nunca espera al espejo; las latencias y discrepancias
+ * de status/cuerpo se comparan con {@link MirrorComparison} cuando
+ * {@link MirrorResponseFilter} termina de escribir la respuesta primaria. El espejo es lo
+ * primero que se descarta bajo presión de {@link OverloadController}.
+ */
+@Component
+public class MirrorGatewayFilterFactory extends AbstractGatewayFilterFactory<MirrorGatewayFilterFactory.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MirrorGatewayFilterFactory.class);
+
+    private final WebClient webClient;
+    private final OverloadController overloadController;
+    private final MeterRegistry meterRegistry;
+    private final RemoveHopByHopHeadersFilter hopByHopHeadersFilter = new RemoveHopByHopHeadersFilter();
+
+    @Autowired
+    public MirrorGatewayFilterFactory(WebClient.Builder webClientBuilder,
+                                      OverloadController overloadController,
+                                      MeterRegistry meterRegistry) {
+        super(Config.class);
+        // Mismas cabeceras que se quitan a la petición primaria, más Expect: el cuerpo ya está completo
+        Set<String> hopByHopHeaders = new HashSet<>(RemoveHopByHopHeadersFilter.HEADERS_REMOVED_ON_REQUEST);
+        hopByHopHeaders.add("expect");
+        hopByHopHeadersFilter.setHeaders(hopByHopHeaders);
+        this.webClient = webClientBuilder.build();
+        this.overloadController = overloadController;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (!config.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        if (config.getShadowUri() == null) {
+            throw new IllegalArgumentException("Mirror requires a shadow-uri");
+        }
+
+        // Presupuesto de peticiones espejo simultáneas para esta ruta
+        AtomicInteger inFlight = new AtomicInteger();
+
+        return new MirrorFilter(config, inFlight);
+    }
+
+    /**
+     * Filtro de una ruta con espejo; {@link MirrorResponseFilter} lo reconoce por su tipo.
+     */
+    class MirrorFilter implements GatewayFilter {
+
+        private final Config config;
+        private final AtomicInteger inFlight;
+
+        MirrorFilter(Config config, AtomicInteger inFlight) {
+            this.config = config;
+            this.inFlight = inFlight;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+            if (ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                return chain.filter(exchange);
+            }
+
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String routeId = route != null ? route.getId() : "unknown";
+
+            if (overloadController.pressure() >= config.getShedPressure()) {
+                meterRegistry.counter("gateway.mirror.shed", "route", routeId, "reason", "overload").increment();
+                return chain.filter(exchange);
+            }
+            if (inFlight.incrementAndGet() > config.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                meterRegistry.counter("gateway.mirror.shed", "route", routeId, "reason", "budget").increment();
+                return chain.filter(exchange);
+            }
+
+            MirrorComparison comparison = new MirrorComparison(meterRegistry, routeId, System.nanoTime());
+            // El cupo se libera aquí hasta que la llamada espejo se hace cargo de él
+            AtomicBoolean handedOff = new AtomicBoolean();
+
+            return DataBufferUtils.join(exchange.getRequest().getBody())
+                    .map(dataBuffer -> {
+                        byte[] content = new byte[dataBuffer.readableByteCount()];
+                        dataBuffer.read(content);
+                        DataBufferUtils.release(dataBuffer);
+                        return content;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .doFinally(signalType -> {
+                        if (handedOff.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                        }
+                    })
+                    .flatMap(content -> {
+                        if (handedOff.compareAndSet(false, true)) {
+                            sendShadow(exchange, content, config, comparison, routeId)
+                                    .doFinally(signalType -> inFlight.decrementAndGet())
+                                    .subscribe();
+                        }
+
+                        exchange.getAttributes().put(MirrorResponseFilter.COMPARISON_ATTRIBUTE, comparison);
+                        return chain.filter(exchange.mutate()
+                                .request(cachedBodyRequest(exchange, content))
+                                .build());
+                    });
+        }
+    }
+
+    private Mono<Void> sendShadow(ServerWebExchange exchange, byte[] content, Config config,
+                                  MirrorComparison comparison, String routeId) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders shadowHeaders = hopByHopHeadersFilter.filter(request.getHeaders(), exchange);
+        URI shadowUri = UriComponentsBuilder.fromUri(config.getShadowUri())
+                .replacePath(request.getURI().getRawPath())
+                .replaceQuery(request.getURI().getRawQuery())
+                .build(true)
+                .toUri();
+
+        long start = System.nanoTime();
+        return webClient.method(request.getMethod())
+                .uri(shadowUri)
+                .headers(headers -> {
+                    headers.addAll(shadowHeaders);
+                    headers.remove(HttpHeaders.HOST);
+                    headers.remove(HttpHeaders.CONTENT_LENGTH);
+                })
+                .bodyValue(content)
+                .exchangeToMono(response -> {
+                    MessageDigest digest = MirrorComparison.newDigest();
+                    return response.body(BodyExtractors.toDataBuffers())
+                            .doOnNext(dataBuffer -> {
+                                MirrorComparison.update(digest, dataBuffer);
+                                DataBufferUtils.release(dataBuffer);
+                            })
+                            .then(Mono.fromRunnable(() -> comparison.completeShadow(
+                                    response.statusCode().value(), digest.digest(), System.nanoTime() - start)));
+                })
+                .timeout(config.getTimeout())
+                .onErrorResume(e -> {
+                    logger.debug("Falló la petición espejo a {}: {}", shadowUri, e.getMessage());
+                    meterRegistry.counter("gateway.mirror.errors", "route", routeId).increment();
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private ServerHttpRequest cachedBodyRequest(ServerWebExchange exchange, byte[] content) {
+        return new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                // El cuerpo original ya fue consumido para la copia espejo
+                return Flux.defer(() -> Flux.just(exchange.getResponse().bufferFactory().wrap(content)));
+            }
+        };
+    }
+
+    public static class Config {
+
+        private boolean enabled = true;
+        private URI shadowUri;
+        private double sampleRate = 0.1;
+        private int maxInFlight = 20;
+        private Duration timeout = Duration.ofSeconds(5);
+        // Presión a partir de la cual se deja de espejar (antes que cualquier clase de prioridad)
+        private double shedPressure = 0.7;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public URI getShadowUri() {
+            return shadowUri;
+        }
+
+        public void setShadowUri(URI shadowUri) {
+            this.shadowUri = shadowUri;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public double getShedPressure() {
+            return shedPressure;
+        }
+
+        public void setShedPressure(double shedPressure) {
+            this.shedPressure = shedPressure;
+        }
+    }
+}
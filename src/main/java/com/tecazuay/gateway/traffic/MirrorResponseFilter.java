@@ -0,0 +1,102 @@
+package com.tecazuay.gateway.traffic;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+
+/**
+ * Calcula el digest de la respuesta primaria de las rutas con filtro {@code Mirror}.
+ * <p>
+ * Los filtros de ruta se ejecutan después de {@link NettyWriteResponseFilter}, que
+ * escribe el cuerpo con el exchange que recibió; por eso el decorador se instala
+ * aquí, justo antes, igual que {@code ModifyResponseBodyGatewayFilterFactory}.
+ * La comparación la deja {@link MirrorGatewayFilterFactory} en el exchange.
+ */
+@Component
+public class MirrorResponseFilter implements GlobalFilter, Ordered {
+
+    static final String COMPARISON_ATTRIBUTE = MirrorResponseFilter.class.getName() + ".comparison";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null || !hasMirror(route)) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange.mutate().response(new DigestingResponse(exchange)).build());
+    }
+
+    private boolean hasMirror(Route route) {
+        for (GatewayFilter filter : route.getFilters()) {
+            GatewayFilter delegate = filter instanceof OrderedGatewayFilter ordered ? ordered.getDelegate() : filter;
+            if (delegate instanceof MirrorGatewayFilterFactory.MirrorFilter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        // Después de CompressionFilter: el digest se calcula sobre el cuerpo sin comprimir
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private static class DigestingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+
+        DigestingResponse(ServerWebExchange exchange) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            // La petición puede no haber sido muestreada: entonces no hay comparación
+            MirrorComparison comparison = exchange.getAttribute(COMPARISON_ATTRIBUTE);
+            if (comparison == null) {
+                return super.writeWith(body);
+            }
+            MessageDigest digest = MirrorComparison.newDigest();
+            return super.writeWith(Flux.from(body).doOnNext(dataBuffer -> MirrorComparison.update(digest, dataBuffer)))
+                    .doOnSuccess(aVoid -> comparison.completePrimary(status(), digest.digest()));
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(publisher -> publisher));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            MirrorComparison comparison = exchange.getAttribute(COMPARISON_ATTRIBUTE);
+            if (comparison == null) {
+                return super.setComplete();
+            }
+            // Respuesta sin cuerpo: digest de la entrada vacía
+            return super.setComplete()
+                    .doOnSuccess(aVoid -> comparison.completePrimary(status(), MirrorComparison.newDigest().digest()));
+        }
+
+        private int status() {
+            HttpStatusCode status = getStatusCode();
+            return status != null ? status.value() : 0;
+        }
+    }
+}
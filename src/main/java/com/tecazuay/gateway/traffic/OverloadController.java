@@ -0,0 +1,158 @@
+package com.tecazuay.gateway.traffic;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Señal global de sobrecarga del gateway.
+ * <p>
+ * Combina tres indicadores normalizados contra su límite configurado:
+ * retraso del event loop de Netty, peticiones en vuelo y latencia media (EWMA)
+ * de las respuestas. La presión es el máximo de los tres; 1.0 significa que
+ * algún indicador alcanzó su límite.
+ */
+@Component
+public class OverloadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverloadController.class);
+
+    // Peso de la última muestra en las medias móviles exponenciales
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final int maxInFlight;
+    private final long maxEventLoopLagNanos;
+    private final long maxLatencyNanos;
+    private final Duration retryAfter;
+    // Factor aplicado a la latencia EWMA en cada sondeo para que olvide muestras viejas
+    private final double latencyDecay;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong eventLoopLagNanos = new AtomicLong();
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private final Map<PriorityClass, Counter> shedCounters = new EnumMap<>(PriorityClass.class);
+    private final ScheduledExecutorService probeExecutor;
+
+    @Autowired
+    public OverloadController(MeterRegistry meterRegistry,
+                              @Value("${gateway.overload.max-in-flight:500}") int maxInFlight,
+                              @Value("${gateway.overload.max-event-loop-lag:50ms}") Duration maxEventLoopLag,
+                              @Value("${gateway.overload.max-latency:2s}") Duration maxLatency,
+                              @Value("${gateway.overload.retry-after:1s}") Duration retryAfter,
+                              @Value("${gateway.overload.probe-interval:100ms}") Duration probeInterval,
+                              @Value("${gateway.overload.latency-half-life:5s}") Duration latencyHalfLife) {
+        this.maxInFlight = maxInFlight;
+        this.maxEventLoopLagNanos = maxEventLoopLag.toNanos();
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.retryAfter = retryAfter;
+        this.latencyDecay = Math.pow(0.5, (double) probeInterval.toNanos() / latencyHalfLife.toNanos());
+
+        for (PriorityClass priority : PriorityClass.values()) {
+            shedCounters.put(priority, Counter.builder("gateway.overload.shed")
+                    .description("Peticiones descartadas por sobrecarga")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gateway.overload.pressure", this, OverloadController::pressure).register(meterRegistry);
+        Gauge.builder("gateway.overload.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("gateway.overload.event-loop-lag", eventLoopLagNanos, lag -> lag.get() / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+
+        this.probeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overload-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = probeInterval.toMillis();
+        probeExecutor.scheduleAtFixedRate(this::probeEventLoops, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Presión actual del gateway: 0 sin carga, 1.0 o más cuando algún indicador
+     * alcanzó su límite.
+     */
+    public double pressure() {
+        double inFlightPressure = (double) inFlight.get() / maxInFlight;
+        double lagPressure = (double) eventLoopLagNanos.get() / maxEventLoopLagNanos;
+        double latencyPressure = (double) latencyEwmaNanos.get() / maxLatencyNanos;
+        return Math.max(inFlightPressure, Math.max(lagPressure, latencyPressure));
+    }
+
+    /**
+     * Intenta admitir una petición de la clase indicada. Si se admite, el llamador
+     * debe invocar {@link #release(long, boolean)} al terminar.
+     *
+     * @return true si la petición se admite
+     */
+    public boolean tryAdmit(PriorityClass priority) {
+        if (pressure() >= priority.getShedThreshold()) {
+            shedCounters.get(priority).increment();
+            return false;
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Libera una petición admitida.
+     *
+     * @param sampleLatency true si la duración es latencia de un backend enrutado;
+     *                      las peticiones locales (p. ej. grabaciones JFR) no se muestrean
+     */
+    public void release(long elapsedNanos, boolean sampleLatency) {
+        inFlight.decrementAndGet();
+        if (sampleLatency) {
+            updateEwma(latencyEwmaNanos, elapsedNanos);
+        }
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Encola una tarea vacía en cada event loop del servidor y mide cuánto tarda
+     * en ejecutarse: ese retraso es tiempo que las peticiones pasan esperando.
+     */
+    private void probeEventLoops() {
+        // Sin muestras nuevas la latencia decae sola: bajo descarte total solo se admiten
+        // peticiones CRITICAL, que casi no generan muestras, y la presión nunca bajaría
+        latencyEwmaNanos.getAndUpdate(current -> (long) (current * latencyDecay));
+
+        try {
+            for (EventExecutor executor : HttpResources.get().onServer(true)) {
+                long scheduledAt = System.nanoTime();
+                executor.execute(() -> updateEwma(eventLoopLagNanos, System.nanoTime() - scheduledAt));
+            }
+        } catch (Exception e) {
+            logger.debug("No se pudo medir el retraso del event loop: {}", e.getMessage());
+        }
+    }
+
+    private static void updateEwma(AtomicLong ewma, long sample) {
+        ewma.getAndUpdate(current -> current == 0 ? sample : (long) (current + EWMA_ALPHA * (sample - current)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,35 @@
+package com.tecazuay.gateway.traffic;
+
+/**
+ * Clases de prioridad usadas para descartar peticiones bajo sobrecarga.
+ * Cada clase se descarta cuando la presión del gateway alcanza su umbral,
+ * de modo que las de menor prioridad caen primero.
+ */
+public enum PriorityClass {
+
+    // Consultas de similitud: las más costosas para el backend
+    LOW(0.8),
+    // Tráfico autenticado general
+    NORMAL(0.9),
+    // Login y usuarios con roles prioritarios
+    HIGH(1.0),
+    // Health checks y llave pública: nunca se descartan
+    CRITICAL(Double.POSITIVE_INFINITY);
+
+    private final double shedThreshold;
+
+    PriorityClass(double shedThreshold) {
+        this.shedThreshold = shedThreshold;
+    }
+
+    public double getShedThreshold() {
+        return shedThreshold;
+    }
+
+    /**
+     * Sube un nivel de prioridad sin superar {@link #HIGH}.
+     */
+    public PriorityClass promote() {
+        return this == LOW ? NORMAL : this == NORMAL ? HIGH : this;
+    }
+}
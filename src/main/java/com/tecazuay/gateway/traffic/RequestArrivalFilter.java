@@ -0,0 +1,29 @@
+package com.tecazuay.gateway.traffic;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra el instante de llegada de la petición antes de cualquier otro filtro,
+ * para que el presupuesto de tiempo incluya seguridad, rate limiting y logging.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestArrivalFilter implements WebFilter {
+
+    /**
+     * Atributo del exchange con el {@link System#nanoTime()} de llegada.
+     */
+    public static final String ARRIVAL_NANOS_ATTRIBUTE = RequestArrivalFilter.class.getName() + ".arrivalNanos";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        exchange.getAttributes().putIfAbsent(ARRIVAL_NANOS_ATTRIBUTE, System.nanoTime());
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,198 @@
+package com.tecazuay.gateway.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Filtro por ruta que agrupa consultas de similitud en llamadas de lote
+ * mediante {@link MicroBatcher}. Se habilita en {@code application.yml}:
+ * <pre>
+ * filters:
+ *   - name: SimilarityBatch
+ *     args:
+ *       batch-uri: https://backend/api/model/batch
+ *       window: 10ms
+ *       max-batch-size: 32
+ *       timeout: 2s
+ * </pre>
+ * Solo agrupa peticiones POST con cuerpo JSON; el resto sigue el enrutamiento normal.
+ */
+@Component
+public class SimilarityBatchGatewayFilterFactory extends AbstractGatewayFilterFactory<SimilarityBatchGatewayFilterFactory.Config> {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final List<String> defaultForwardHeaders;
+
+    @Autowired
+    public SimilarityBatchGatewayFilterFactory(WebClient.Builder webClientBuilder, ObjectMapper objectMapper,
+                                               @Value("${security.identity-assertion.header:X-Gateway-Identity}") String identityHeader) {
+        super(Config.class);
+        this.webClient = webClientBuilder.build();
+        this.objectMapper = objectMapper;
+        // La misma cabecera que escribe IdentityAssertionFilter, para no perder la identidad en el lote
+        this.defaultForwardHeaders = List.of(HttpHeaders.AUTHORIZATION, identityHeader);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        if (!config.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        if (config.getBatchUri() == null || config.getBatchUri().isBlank()) {
+            throw new IllegalArgumentException("SimilarityBatch requires a batch-uri");
+        }
+
+        List<String> forwardHeaders = config.getForwardHeaders() != null ? config.getForwardHeaders() : defaultForwardHeaders;
+
+        // Un batcher por ruta: cada instancia del filtro agrupa solo su propio tráfico
+        MicroBatcher batcher = new MicroBatcher(webClient, objectMapper,
+                config.getBatchUri(), config.getWindow(), config.getMaxBatchSize(), config.getTimeout());
+
+        return (exchange, chain) -> {
+            if (!isBatchable(exchange.getRequest())) {
+                return chain.filter(exchange);
+            }
+
+            return DataBufferUtils.join(exchange.getRequest().getBody())
+                    .map(dataBuffer -> {
+                        byte[] content = new byte[dataBuffer.readableByteCount()];
+                        dataBuffer.read(content);
+                        DataBufferUtils.release(dataBuffer);
+                        return content;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(content -> {
+                        ObjectNode item;
+                        try {
+                            item = toBatchItem(exchange.getRequest(), content, forwardHeaders);
+                        } catch (IOException e) {
+                            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+                            return exchange.getResponse().setComplete();
+                        }
+                        return batcher.submit(item).flatMap(result -> writeResult(exchange, result));
+                    });
+        };
+    }
+
+    private boolean isBatchable(ServerHttpRequest request) {
+        MediaType contentType = request.getHeaders().getContentType();
+        return HttpMethod.POST.equals(request.getMethod())
+                && contentType != null
+                && MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+    }
+
+    private ObjectNode toBatchItem(ServerHttpRequest request, byte[] content, List<String> forwardHeaders) throws IOException {
+        ObjectNode item = objectMapper.createObjectNode();
+        item.put("path", request.getURI().getRawPath());
+        if (request.getURI().getRawQuery() != null) {
+            item.put("query", request.getURI().getRawQuery());
+        }
+
+        // Cada elemento conserva la identidad de su propio llamador
+        ObjectNode headers = item.putObject("headers");
+        for (String header : forwardHeaders) {
+            String value = request.getHeaders().getFirst(header);
+            if (value != null) {
+                headers.put(header, value);
+            }
+        }
+
+        item.set("body", content.length == 0 ? objectMapper.nullNode() : objectMapper.readTree(content));
+        return item;
+    }
+
+    private Mono<Void> writeResult(ServerWebExchange exchange, JsonNode result) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(result.path("status").asInt(HttpStatus.OK.value())));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(result.path("body"));
+        } catch (IOException e) {
+            return Mono.error(e);
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    public static class Config {
+
+        private boolean enabled = true;
+        private String batchUri;
+        private Duration window = Duration.ofMillis(10);
+        private int maxBatchSize = 32;
+        private Duration timeout = Duration.ofSeconds(2);
+        // null: Authorization y la cabecera de security.identity-assertion.header
+        private List<String> forwardHeaders;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getBatchUri() {
+            return batchUri;
+        }
+
+        public void setBatchUri(String batchUri) {
+            this.batchUri = batchUri;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public List<String> getForwardHeaders() {
+            return forwardHeaders;
+        }
+
+        public void setForwardHeaders(List<String> forwardHeaders) {
+            this.forwardHeaders = forwardHeaders;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.tecazuay.gateway.traffic;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de un endpoint de backend: latencia EWMA, peticiones pendientes y
+ * expulsión temporal por comportamiento anómalo.
+ */
+class UpstreamEndpoint {
+
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final URI uri;
+    private final AtomicLong latencyEwmaNanos = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // nanoTime tiene origen arbitrario (puede ser negativo): 0 no sirve como "sin expulsión"
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+
+    UpstreamEndpoint(URI uri) {
+        this.uri = uri;
+    }
+
+    URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Costo estimado de enviar una petición más: latencia esperada por la cola actual.
+     * Solo es comparable entre endpoints con {@link #hasLatencySample()}.
+     */
+    double score() {
+        return (double) latencyEwmaNanos.get() * (outstanding.get() + 1);
+    }
+
+    boolean hasLatencySample() {
+        return latencyEwmaNanos.get() != 0;
+    }
+
+    boolean isEjected(long nowNanos) {
+        return ejected && nowNanos - ejectedUntilNanos < 0;
+    }
+
+    void eject(long untilNanos) {
+        ejectedUntilNanos = untilNanos;
+        // Se escribe después del plazo: quien lee ejected=true ya ve el plazo nuevo
+        ejected = true;
+        consecutiveFailures.set(0);
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * @return número de fallos consecutivos tras registrar la respuesta
+     */
+    int complete(long elapsedNanos, boolean failed) {
+        outstanding.decrementAndGet();
+        latencyEwmaNanos.getAndUpdate(current ->
+                current == 0 ? elapsedNanos : (long) (current + EWMA_ALPHA * (elapsedNanos - current)));
+        if (failed) {
+            return consecutiveFailures.incrementAndGet();
+        }
+        consecutiveFailures.set(0);
+        return 0;
+    }
+
+    double latencyMillis() {
+        return latencyEwmaNanos.get() / 1_000_000.0;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+}
@@ -0,0 +1,64 @@
+package com.tecazuay.gateway.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Micro-benchmark manual: compara la verificación RS256 del JWT que hoy repite
+ * cada backend con la verificación HMAC de la aserción de identidad del gateway.
+ * <p>
+ * Ejecutar con {@code java -cp target/test-classes:target/classes:<deps> com.tecazuay.gateway.security.IdentityAssertionBenchmark}.
+ */
+public class IdentityAssertionBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+
+        String jwt = Jwts.builder()
+                .setSubject("user@example.com")
+                .claim("roles", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                "user@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+        String assertion = new IdentityAssertionSigner(secret, Duration.ofMinutes(5)).sign(authentication);
+        IdentityAssertionVerifier verifier = new IdentityAssertionVerifier(secret);
+
+        Runnable rs256 = () -> Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build().parseClaimsJws(jwt);
+        Runnable hmac = () -> verifier.verify(assertion);
+
+        run("RS256 JWT", rs256, WARMUP / 10, ITERATIONS / 10);
+        run("HMAC identity assertion", hmac, WARMUP, ITERATIONS);
+    }
+
+    private static void run(String name, Runnable operation, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-25s %10.2f us/op%n", name, elapsed / 1_000.0 / iterations);
+    }
+}
@@ -0,0 +1,59 @@
+package com.tecazuay.gateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IdentityAssertionFilterTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final String HEADER = "X-Gateway-Identity";
+
+    private final IdentityAssertionFilter filter = new IdentityAssertionFilter(
+            Base64.getEncoder().encodeToString(SECRET), Duration.ofSeconds(30), HEADER);
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @Test
+    void stripsClientSuppliedAssertionOnUnauthenticatedRequests() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/auth/login")
+                .header(HEADER, "forged.assertion"));
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(HEADER));
+    }
+
+    @Test
+    void replacesBearerTokenWithSignedAssertion() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/jobs")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .header(HEADER, "forged.assertion"));
+
+        filter.filter(exchange, chain)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        IdentityAssertionVerifierTest.authentication("alice", "ROLE_USER")))
+                .block(Duration.ofSeconds(5));
+
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertFalse(headers.containsKey(HttpHeaders.AUTHORIZATION));
+        assertEquals("alice", new IdentityAssertionVerifier(SECRET).verify(headers.getFirst(HEADER)).subject());
+    }
+}
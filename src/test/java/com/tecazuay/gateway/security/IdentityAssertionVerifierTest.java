@@ -0,0 +1,107 @@
+package com.tecazuay.gateway.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdentityAssertionVerifierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Duration TTL = Duration.ofSeconds(30);
+
+    private final IdentityAssertionSigner signer = new IdentityAssertionSigner(SECRET, TTL, clockAt(NOW));
+    private final IdentityAssertionVerifier verifier = new IdentityAssertionVerifier(SECRET, clockAt(NOW));
+
+    @Test
+    void verifiesSignedAssertion() {
+        String assertion = signer.sign(authentication("alice", "ROLE_USER", "ROLE_ADMIN"));
+
+        IdentityAssertionVerifier.VerifiedIdentity identity = verifier.verify(assertion);
+
+        assertEquals("alice", identity.subject());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), identity.roles());
+        assertEquals(NOW.plus(TTL), identity.expiresAt());
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String assertion = signer.sign(authentication("alice", "ROLE_USER"));
+        // Se altera el primer carácter de la firma: el último solo lleva bits de relleno
+        int signatureStart = assertion.indexOf('.') + 1;
+        char first = assertion.charAt(signatureStart);
+        String tampered = assertion.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A')
+                + assertion.substring(signatureStart + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String assertion = signer.sign(authentication("alice", "ROLE_USER"));
+        String[] parts = assertion.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[0]), StandardCharsets.UTF_8);
+        String elevated = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("ROLE_USER", "ROLE_ADMIN").getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(elevated + "." + parts[1]));
+    }
+
+    @Test
+    void rejectsAssertionSignedWithAnotherSecret() {
+        IdentityAssertionSigner otherSigner = new IdentityAssertionSigner(
+                "another-secret-another-secret-xx".getBytes(StandardCharsets.UTF_8), TTL, clockAt(NOW));
+        String assertion = otherSigner.sign(authentication("alice", "ROLE_USER"));
+
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(assertion));
+    }
+
+    @Test
+    void rejectsExpiredAssertion() {
+        String assertion = signer.sign(authentication("alice", "ROLE_USER"));
+        IdentityAssertionVerifier later = new IdentityAssertionVerifier(SECRET, clockAt(NOW.plus(TTL).plusSeconds(1)));
+
+        assertThrows(IllegalArgumentException.class, () -> later.verify(assertion));
+    }
+
+    @Test
+    void capsExpiryAtTokenExpiration() {
+        UsernamePasswordAuthenticationToken authentication = authentication("alice", "ROLE_USER");
+        Instant tokenExpiration = NOW.plusSeconds(10);
+        authentication.setDetails(Date.from(tokenExpiration));
+
+        String assertion = signer.sign(authentication);
+
+        assertEquals(tokenExpiration, verifier.verify(assertion).expiresAt());
+        IdentityAssertionVerifier afterToken = new IdentityAssertionVerifier(SECRET, clockAt(tokenExpiration.plusSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> afterToken.verify(assertion));
+    }
+
+    @Test
+    void rejectsMalformedAssertion() {
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify("not-an-assertion"));
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(""));
+    }
+
+    static UsernamePasswordAuthenticationToken authentication(String subject, String... roles) {
+        return new UsernamePasswordAuthenticationToken(subject, null,
+                Arrays.stream(roles).map(SimpleGrantedAuthority::new).toList());
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,102 @@
+package com.tecazuay.gateway.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MicroBatcherTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void groupsRequestsWithinWindowIntoOneBatchCall() {
+        try (StubBatchBackend backend = new StubBatchBackend()) {
+            MicroBatcher batcher = new MicroBatcher(WebClient.create(), objectMapper,
+                    backend.batchUri(), Duration.ofMillis(200), 100, TIMEOUT);
+
+            List<JsonNode> results = Flux.range(0, 5)
+                    .flatMapSequential(i -> batcher.submit(item(i)))
+                    .collectList()
+                    .block(Duration.ofSeconds(5));
+
+            assertEquals(5, results.size());
+            assertEquals(1, backend.batchCalls());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i, results.get(i).get("body").get("echo").asInt());
+            }
+        }
+    }
+
+    @Test
+    void flushesWhenMaxBatchSizeIsReached() {
+        try (StubBatchBackend backend = new StubBatchBackend()) {
+            MicroBatcher batcher = new MicroBatcher(WebClient.create(), objectMapper,
+                    backend.batchUri(), Duration.ofSeconds(30), 2, TIMEOUT);
+
+            List<JsonNode> results = Flux.range(0, 4)
+                    .flatMapSequential(i -> batcher.submit(item(i)))
+                    .collectList()
+                    .block(Duration.ofSeconds(5));
+
+            assertEquals(4, results.size());
+            assertEquals(2, backend.batchCalls());
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(200, results.get(i).get("status").asInt());
+                assertEquals(i, results.get(i).get("body").get("echo").asInt());
+            }
+        }
+    }
+
+    @Test
+    void failsItemsMissingFromBatchResponse() {
+        // Se pierde el elemento 1 y el 2 vuelve con un id fuera de rango
+        try (StubBatchBackend backend = new StubBatchBackend(results -> {
+            results.remove(1);
+            ((ObjectNode) results.get(1)).put("id", 7);
+            return results;
+        })) {
+            MicroBatcher batcher = new MicroBatcher(WebClient.create(), objectMapper,
+                    backend.batchUri(), Duration.ofSeconds(30), 3, TIMEOUT);
+
+            List<Mono<JsonNode>> results = IntStream.range(0, 3)
+                    .mapToObj(i -> batcher.submit(item(i)))
+                    .toList();
+
+            assertEquals(0, results.get(0).block(Duration.ofSeconds(5)).get("body").get("echo").asInt());
+            assertThrows(IllegalStateException.class, () -> results.get(1).block(Duration.ofSeconds(5)));
+            assertThrows(IllegalStateException.class, () -> results.get(2).block(Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    void failsAllItemsWhenBatchResponseHasNoBody() {
+        try (StubBatchBackend backend = new StubBatchBackend(results -> null)) {
+            MicroBatcher batcher = new MicroBatcher(WebClient.create(), objectMapper,
+                    backend.batchUri(), Duration.ofSeconds(30), 2, TIMEOUT);
+
+            List<Mono<JsonNode>> results = IntStream.range(0, 2)
+                    .mapToObj(i -> batcher.submit(item(i)))
+                    .toList();
+
+            results.forEach(result -> assertThrows(IllegalStateException.class,
+                    () -> result.block(Duration.ofSeconds(5))));
+        }
+    }
+
+    private ObjectNode item(int body) {
+        return objectMapper.createObjectNode().put("body", body);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tecazuay.gateway.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Backend de lote en proceso para pruebas: responde cada elemento con
+ * status 200 y un cuerpo que repite el {@code body} recibido. Las pruebas
+ * pueden alterar la respuesta de lote antes de enviarla; {@code null} la deja sin cuerpo.
+ */
+class StubBatchBackend implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final UnaryOperator<ArrayNode> responseTransformer;
+    private final DisposableServer server;
+
+    StubBatchBackend() {
+        this(UnaryOperator.identity());
+    }
+
+    StubBatchBackend(UnaryOperator<ArrayNode> responseTransformer) {
+        this.responseTransformer = responseTransformer;
+        this.server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/api/model/batch", (request, response) -> request.receive()
+                        .aggregate()
+                        .asByteArray()
+                        .map(this::handleBatch)
+                        .flatMap(body -> response.header("Content-Type", "application/json")
+                                .sendByteArray(body.length > 0 ? Mono.just(body) : Mono.empty())
+                                .then())))
+                .bindNow();
+    }
+
+    String batchUri() {
+        return "http://localhost:" + server.port() + "/api/model/batch";
+    }
+
+    int batchCalls() {
+        return batchCalls.get();
+    }
+
+    private byte[] handleBatch(byte[] request) {
+        batchCalls.incrementAndGet();
+        try {
+            ArrayNode results = objectMapper.createArrayNode();
+            for (JsonNode item : objectMapper.readTree(request)) {
+                ObjectNode result = results.addObject();
+                result.put("id", item.get("id").asInt());
+                result.put("status", 200);
+                result.putObject("body").set("echo", item.get("body"));
+            }
+            ArrayNode transformed = responseTransformer.apply(results);
+            return transformed != null ? objectMapper.writeValueAsBytes(transformed) : new byte[0];
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}